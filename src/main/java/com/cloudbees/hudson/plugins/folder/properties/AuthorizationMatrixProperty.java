@@ -26,7 +26,6 @@ package com.cloudbees.hudson.plugins.folder.properties;
 import com.cloudbees.hudson.plugins.folder.AbstractFolder;
 import com.cloudbees.hudson.plugins.folder.AbstractFolderProperty;
 import com.cloudbees.hudson.plugins.folder.AbstractFolderPropertyDescriptor;
-import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.model.AbstractItem;
@@ -40,25 +39,26 @@ import hudson.security.ProjectMatrixAuthorizationStrategy;
 import hudson.security.SidACL;
 import hudson.util.FormValidation;
 import java.io.IOException;
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 import jenkins.model.Jenkins;
 import net.sf.json.JSONObject;
-import org.acegisecurity.acls.sid.PrincipalSid;
-import org.acegisecurity.acls.sid.Sid;
 import org.jenkinsci.Symbol;
 import org.jenkinsci.plugins.matrixauth.AbstractAuthorizationPropertyConverter;
 import org.jenkinsci.plugins.matrixauth.AuthorizationProperty;
 import org.jenkinsci.plugins.matrixauth.AuthorizationPropertyDescriptor;
 import org.jenkinsci.plugins.matrixauth.AuthorizationType;
+import org.jenkinsci.plugins.matrixauth.ContainerACL;
+import org.jenkinsci.plugins.matrixauth.GrantTable;
+import org.jenkinsci.plugins.matrixauth.GroupRegistry;
+import org.jenkinsci.plugins.matrixauth.MatrixSnapshot;
+import org.jenkinsci.plugins.matrixauth.PendingGrants;
 import org.jenkinsci.plugins.matrixauth.PermissionEntry;
+import org.jenkinsci.plugins.matrixauth.PropertyTracker;
 import org.jenkinsci.plugins.matrixauth.inheritance.InheritParentStrategy;
 import org.jenkinsci.plugins.matrixauth.inheritance.InheritanceStrategy;
 import org.kohsuke.accmod.Restricted;
@@ -77,14 +77,19 @@ import org.kohsuke.stapler.verb.GET;
 public class AuthorizationMatrixProperty extends AbstractFolderProperty<AbstractFolder<?>>
         implements AuthorizationProperty<AbstractFolderProperty<?>> {
 
-    private final transient SidACL acl = new AclImpl();
+    private final transient SidACL acl = new ContainerACL(this);
 
     /**
-     * List up all permissions that are granted.
+     * The permissions granted, and the groups recorded, by this container.
      */
-    private final Map<Permission, Set<PermissionEntry>> grantedPermissions = new HashMap<>();
+    private transient volatile GrantTable grantTable = GrantTable.EMPTY;
 
-    private final Set<String> groupSids = Collections.synchronizedSet(new HashSet<>());
+    /**
+     * Permission assignments not parsed into {@link #grantTable} yet.
+     *
+     * @see AbstractAuthorizationPropertyConverter#LAZY_LOADING
+     */
+    private transient volatile PendingGrants pendingGrants;
 
     /**
      * @deprecated unused, use {@link #setInheritanceStrategy(InheritanceStrategy)} instead.
@@ -100,13 +105,13 @@ public class AuthorizationMatrixProperty extends AbstractFolderProperty<Abstract
     // TODO(3.0) How is this used?
     @Deprecated
     public AuthorizationMatrixProperty(Map<Permission, ? extends Set<String>> grantedPermissions) {
+        final GrantTable.Builder builder = new GrantTable.Builder(GrantTable.EMPTY);
         for (Map.Entry<Permission, ? extends Set<String>> e : grantedPermissions.entrySet()) {
-            this.grantedPermissions.put(
-                    e.getKey(),
-                    e.getValue().stream()
-                            .map(sid -> new PermissionEntry(AuthorizationType.EITHER, sid))
-                            .collect(Collectors.toSet()));
+            for (String sid : e.getValue()) {
+                builder.add(e.getKey(), new PermissionEntry(AuthorizationType.EITHER, sid));
+            }
         }
+        this.grantTable = GrantTable.intern(builder.build());
     }
 
     /**
@@ -120,17 +125,72 @@ public class AuthorizationMatrixProperty extends AbstractFolderProperty<Abstract
 
     @Override
     public Set<String> getGroups() {
-        return groupSids;
+        return getGrantTable().getGroups();
     }
 
     @Override
     public void recordGroup(String sid) {
-        this.groupSids.add(sid);
+        updateGrantTable(table -> table.withGroup(sid));
     }
 
     @Override
     public Map<Permission, Set<PermissionEntry>> getGrantedPermissionEntries() {
-        return grantedPermissions;
+        return getGrantTable().getGrants();
+    }
+
+    @Override
+    @Restricted(NoExternalUse.class)
+    public GrantTable getGrantTable() {
+        if (pendingGrants != null) {
+            parsePendingGrants();
+        }
+        return grantTable;
+    }
+
+    private void parsePendingGrants() {
+        synchronized (this) {
+            final PendingGrants pending = pendingGrants;
+            if (pending == null) {
+                return; // parsed concurrently
+            }
+            grantTable = pending.parse(this);
+            pendingGrants = null;
+        }
+        if (owner != null) {
+            // skipped by #setOwner
+            PropertyTracker.attach(owner, this);
+            MatrixSnapshot.record(owner, this);
+            FolderContributor.record(owner);
+            GroupRegistry.record(owner);
+        }
+    }
+
+    @Override
+    @Restricted(NoExternalUse.class)
+    public boolean supportsPendingGrants() {
+        return true;
+    }
+
+    @Override
+    @Restricted(NoExternalUse.class)
+    public boolean hasPendingGrants() {
+        return pendingGrants != null;
+    }
+
+    @Override
+    @Restricted(NoExternalUse.class)
+    public synchronized void setPendingGrants(PendingGrants pending) {
+        pendingGrants = pending;
+    }
+
+    @Override
+    @Restricted(NoExternalUse.class)
+    public synchronized void updateGrantTable(UnaryOperator<GrantTable> update) {
+        grantTable = update.apply(getGrantTable());
+        if (owner != null) {
+            PropertyTracker.forget(owner);
+            GroupRegistry.record(owner);
+        }
     }
 
     @Override
@@ -141,7 +201,24 @@ public class AuthorizationMatrixProperty extends AbstractFolderProperty<Abstract
     @Override
     protected void setOwner(@NonNull AbstractFolder<?> owner) {
         super.setOwner(owner);
-        FolderContributor.record(owner);
+        if (pendingGrants != null) {
+            // loaded lazily, so defer everything requiring the permissions until they are first used
+            PropertyTracker.forget(owner);
+            if (MatrixSnapshot.lookup(owner) != null) {
+                // known from the previous run without parsing
+                FolderContributor.record(owner);
+                GroupRegistry.record(owner);
+            }
+            return;
+        }
+        final GrantTable previous = PropertyTracker.attach(owner, this);
+        if (previous != null) {
+            // identical to the previous matrix of this folder, e.g. when a Job DSL script re-applies its properties
+            grantTable = previous;
+        } else {
+            FolderContributor.record(owner);
+        }
+        GroupRegistry.record(owner);
     }
 
     @Override
@@ -182,15 +259,6 @@ public class AuthorizationMatrixProperty extends AbstractFolderProperty<Abstract
         }
     }
 
-    private final class AclImpl extends SidACL {
-        @CheckForNull
-        protected Boolean hasPermission(Sid sid, Permission p) {
-            if (AuthorizationMatrixProperty.this.hasPermission(toString(sid), p, sid instanceof PrincipalSid))
-                return true;
-            return null;
-        }
-    }
-
     public SidACL getACL() {
         return acl;
     }
@@ -198,6 +266,9 @@ public class AuthorizationMatrixProperty extends AbstractFolderProperty<Abstract
     @DataBoundSetter
     public void setInheritanceStrategy(InheritanceStrategy inheritanceStrategy) {
         this.inheritanceStrategy = inheritanceStrategy;
+        if (owner != null) {
+            PropertyTracker.forget(owner);
+        }
     }
 
     public InheritanceStrategy getInheritanceStrategy() {
@@ -33,17 +33,14 @@ import hudson.model.Saveable;
 import hudson.model.listeners.ItemListener;
 import hudson.model.listeners.SaveableListener;
 import hudson.security.ProjectMatrixAuthorizationStrategy;
-import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
-import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import jenkins.model.Jenkins;
 import org.jenkinsci.plugins.matrixauth.AmbiguityMonitor;
+import org.jenkinsci.plugins.matrixauth.PropertyTracker;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
 
@@ -52,20 +49,27 @@ import org.kohsuke.accmod.restrictions.NoExternalUse;
 public class FolderContributor implements AmbiguityMonitor.Contributor {
     public static final Logger LOGGER = Logger.getLogger(FolderContributor.class.getName());
 
-    public final Map<String, Boolean> activeFolders = Collections.synchronizedMap(new TreeMap<>());
+    public final AmbiguityMonitor.AmbiguousNames activeFolders = new AmbiguityMonitor.AmbiguousNames();
 
     @Override
     public boolean hasAmbiguousEntries() {
         return Jenkins.get().getAuthorizationStrategy() instanceof ProjectMatrixAuthorizationStrategy
-                && activeFolders.values().stream().anyMatch(v -> v);
+                && !activeFolders.isEmpty();
+    }
+
+    @Override
+    public void recordAll() {
+        for (AbstractFolder<?> folder : Jenkins.get().getAllItems(AbstractFolder.class)) {
+            record(folder);
+        }
     }
 
     public static void record(final AbstractFolder<?> folder) {
-        if (AmbiguityMonitor.isGatheringData()) {
-            final boolean value =
-                    AmbiguityMonitor.hasAmbiguousEntries(folder.getProperties().get(AuthorizationMatrixProperty.class));
+        if (AmbiguityMonitor.isRecording()) {
+            final boolean value = AmbiguityMonitor.hasAmbiguousEntries(
+                    folder, folder.getProperties().get(AuthorizationMatrixProperty.class));
             LOGGER.log(Level.FINE, () -> "Recording folder " + folder + " as having ambiguous entries? " + value);
-            ExtensionList.lookupSingleton(FolderContributor.class).activeFolders.put(folder.getFullName(), value);
+            ExtensionList.lookupSingleton(FolderContributor.class).activeFolders.record(folder.getFullName(), value);
         }
     }
 
@@ -76,14 +80,21 @@ public class FolderContributor implements AmbiguityMonitor.Contributor {
         }
     }
 
+    @Override
+    public AmbiguityMonitor.AmbiguousNames getAmbiguousNames() {
+        return activeFolders;
+    }
+
     // for Jelly
     public List<Item> getEntries() {
-        return activeFolders.entrySet().stream()
-                .filter(Map.Entry::getValue)
-                .map(Map.Entry::getKey)
+        return getEntries(0);
+    }
+
+    // for Jelly
+    public List<Item> getEntries(int start) {
+        return activeFolders.getNames(start, AmbiguityMonitor.PAGE_SIZE).stream()
                 .map(v -> Jenkins.get().getItemByFullName(v))
                 .filter(Objects::nonNull)
-                .sorted(Comparator.comparing(Item::getFullDisplayName, String.CASE_INSENSITIVE_ORDER))
                 .collect(Collectors.toList());
     }
 
@@ -125,8 +136,14 @@ public class FolderContributor implements AmbiguityMonitor.Contributor {
         public void onChange(final Saveable o, final XmlFile file) {
             try {
                 if (o instanceof Folder) {
+                    final Folder folder = (Folder) o;
+                    final AuthorizationMatrixProperty property =
+                            folder.getProperties().get(AuthorizationMatrixProperty.class);
+                    if (PropertyTracker.isCurrent(folder, property)) {
+                        return; // unchanged since the last update
+                    }
                     LOGGER.log(Level.FINEST, () -> "Recording update to Saveable " + o + " stored in " + file);
-                    record((Folder) o);
+                    record(folder);
                 }
             } catch (Exception ex) {
                 LOGGER.log(Level.WARNING, ex, () -> "Exception while updating status for " + o);
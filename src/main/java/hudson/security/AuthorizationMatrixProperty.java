@@ -23,7 +23,6 @@
  */
 package hudson.security;
 
-import edu.umd.cs.findbugs.annotations.CheckForNull;
 import hudson.Extension;
 import hudson.model.Item;
 import hudson.model.Job;
@@ -34,30 +33,31 @@ import hudson.model.listeners.ItemListener;
 import hudson.util.FormValidation;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.TreeMap;
 import java.util.TreeSet;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Collectors;
 import jenkins.model.Jenkins;
 import net.sf.json.JSONObject;
-import org.acegisecurity.acls.sid.PrincipalSid;
-import org.acegisecurity.acls.sid.Sid;
 import org.jenkinsci.Symbol;
 import org.jenkinsci.plugins.matrixauth.AbstractAuthorizationPropertyConverter;
 import org.jenkinsci.plugins.matrixauth.AmbiguityMonitor;
 import org.jenkinsci.plugins.matrixauth.AuthorizationProperty;
 import org.jenkinsci.plugins.matrixauth.AuthorizationPropertyDescriptor;
 import org.jenkinsci.plugins.matrixauth.AuthorizationType;
+import org.jenkinsci.plugins.matrixauth.ContainerACL;
+import org.jenkinsci.plugins.matrixauth.GrantTable;
+import org.jenkinsci.plugins.matrixauth.GroupRegistry;
+import org.jenkinsci.plugins.matrixauth.MatrixSnapshot;
+import org.jenkinsci.plugins.matrixauth.PendingGrants;
 import org.jenkinsci.plugins.matrixauth.PermissionEntry;
+import org.jenkinsci.plugins.matrixauth.PropertyTracker;
 import org.jenkinsci.plugins.matrixauth.inheritance.InheritParentStrategy;
 import org.jenkinsci.plugins.matrixauth.inheritance.InheritanceStrategy;
 import org.kohsuke.accmod.Restricted;
@@ -80,17 +80,19 @@ import org.kohsuke.stapler.verb.GET;
 public class AuthorizationMatrixProperty extends JobProperty<Job<?, ?>>
         implements AuthorizationProperty<JobProperty<?>> {
 
-    private final transient SidACL acl = new AclImpl();
+    private final transient SidACL acl = new ContainerACL(this);
 
     /**
-     * List up all permissions that are granted.
-     * <p>
-     * Strings are either the granted authority or the principal, which is not
-     * distinguished.
+     * The permissions granted, and the groups recorded, by this container.
      */
-    private final Map<Permission, Set<PermissionEntry>> grantedPermissions = new HashMap<>();
+    private transient volatile GrantTable grantTable = GrantTable.EMPTY;
 
-    private final Set<String> groupSids = Collections.synchronizedSet(new HashSet<>());
+    /**
+     * Permission assignments not parsed into {@link #grantTable} yet.
+     *
+     * @see AbstractAuthorizationPropertyConverter#LAZY_LOADING
+     */
+    private transient volatile PendingGrants pendingGrants;
 
     /**
      * @deprecated unused, use {@link #setInheritanceStrategy(InheritanceStrategy)} instead.
@@ -110,14 +112,7 @@ public class AuthorizationMatrixProperty extends JobProperty<Job<?, ?>>
     public AuthorizationMatrixProperty(
             Map<Permission, Set<PermissionEntry>> grantedPermissions, InheritanceStrategy inheritanceStrategy) {
         this.inheritanceStrategy = inheritanceStrategy;
-        grantedPermissions.forEach((key, value) -> {
-            this.grantedPermissions.put(key, new HashSet<>(value));
-            value.forEach(entry -> {
-                if (entry.getType() != AuthorizationType.USER) {
-                    this.recordGroup(entry.getSid());
-                }
-            });
-        });
+        this.grantTable = GrantTable.intern(GrantTable.of(grantedPermissions));
     }
 
     /**
@@ -125,13 +120,13 @@ public class AuthorizationMatrixProperty extends JobProperty<Job<?, ?>>
      */
     @Deprecated
     public AuthorizationMatrixProperty(Map<Permission, Set<String>> grantedPermissions) {
+        final GrantTable.Builder builder = new GrantTable.Builder(GrantTable.EMPTY);
         for (Map.Entry<Permission, ? extends Set<String>> e : grantedPermissions.entrySet()) {
-            this.grantedPermissions.put(
-                    e.getKey(),
-                    e.getValue().stream()
-                            .map(sid -> new PermissionEntry(AuthorizationType.EITHER, sid))
-                            .collect(Collectors.toSet()));
+            for (String sid : e.getValue()) {
+                builder.add(e.getKey(), new PermissionEntry(AuthorizationType.EITHER, sid));
+            }
         }
+        this.grantTable = GrantTable.intern(builder.build());
     }
 
     /**
@@ -150,7 +145,7 @@ public class AuthorizationMatrixProperty extends JobProperty<Job<?, ?>>
         List<String> permissions = new ArrayList<>();
 
         SortedMap<Permission, Set<PermissionEntry>> map = new TreeMap<>(Comparator.comparing(Permission::getId));
-        map.putAll(this.grantedPermissions);
+        map.putAll(getGrantedPermissionEntries());
         for (Map.Entry<Permission, Set<PermissionEntry>> entry : map.entrySet()) {
             String permission = entry.getKey().getId();
             final TreeSet<PermissionEntry> permissionEntries = new TreeSet<>(new PermissionEntryComparator());
@@ -164,17 +159,72 @@ public class AuthorizationMatrixProperty extends JobProperty<Job<?, ?>>
 
     @Override
     public Set<String> getGroups() {
-        return groupSids;
+        return getGrantTable().getGroups();
     }
 
     @Override
     public void recordGroup(String sid) {
-        this.groupSids.add(sid);
+        updateGrantTable(table -> table.withGroup(sid));
     }
 
     @Override
     public Map<Permission, Set<PermissionEntry>> getGrantedPermissionEntries() {
-        return grantedPermissions;
+        return getGrantTable().getGrants();
+    }
+
+    @Override
+    @Restricted(NoExternalUse.class)
+    public GrantTable getGrantTable() {
+        if (pendingGrants != null) {
+            parsePendingGrants();
+        }
+        return grantTable;
+    }
+
+    private void parsePendingGrants() {
+        synchronized (this) {
+            final PendingGrants pending = pendingGrants;
+            if (pending == null) {
+                return; // parsed concurrently
+            }
+            grantTable = pending.parse(this);
+            pendingGrants = null;
+        }
+        if (owner != null) {
+            // skipped by #setOwner
+            PropertyTracker.attach(owner, this);
+            MatrixSnapshot.record(owner, this);
+            AmbiguityMonitor.JobContributor.update(owner);
+            GroupRegistry.record(owner);
+        }
+    }
+
+    @Override
+    @Restricted(NoExternalUse.class)
+    public boolean supportsPendingGrants() {
+        return true;
+    }
+
+    @Override
+    @Restricted(NoExternalUse.class)
+    public boolean hasPendingGrants() {
+        return pendingGrants != null;
+    }
+
+    @Override
+    @Restricted(NoExternalUse.class)
+    public synchronized void setPendingGrants(PendingGrants pending) {
+        pendingGrants = pending;
+    }
+
+    @Override
+    @Restricted(NoExternalUse.class)
+    public synchronized void updateGrantTable(UnaryOperator<GrantTable> update) {
+        grantTable = update.apply(getGrantTable());
+        if (owner != null) {
+            PropertyTracker.forget(owner);
+            GroupRegistry.record(owner);
+        }
     }
 
     @Override
@@ -220,16 +270,6 @@ public class AuthorizationMatrixProperty extends JobProperty<Job<?, ?>>
         }
     }
 
-    private final class AclImpl extends SidACL {
-        @CheckForNull
-        protected Boolean hasPermission(Sid sid, Permission p) {
-            if (AuthorizationMatrixProperty.this.hasPermission(toString(sid), p, sid instanceof PrincipalSid)) {
-                return true;
-            }
-            return null;
-        }
-    }
-
     public SidACL getACL() {
         return acl;
     }
@@ -237,6 +277,9 @@ public class AuthorizationMatrixProperty extends JobProperty<Job<?, ?>>
     @DataBoundSetter
     public void setInheritanceStrategy(InheritanceStrategy inheritanceStrategy) {
         this.inheritanceStrategy = inheritanceStrategy;
+        if (owner != null) {
+            PropertyTracker.forget(owner);
+        }
     }
 
     public InheritanceStrategy getInheritanceStrategy() {
@@ -246,9 +289,29 @@ public class AuthorizationMatrixProperty extends JobProperty<Job<?, ?>>
     @Override
     protected void setOwner(Job<?, ?> owner) {
         super.setOwner(owner);
-        AmbiguityMonitor.JobContributor.update(owner);
+        if (pendingGrants != null) {
+            // loaded lazily, so defer everything requiring the permissions until they are first used
+            PropertyTracker.forget(owner);
+            if (MatrixSnapshot.lookup(owner) != null) {
+                // known from the previous run without parsing
+                AmbiguityMonitor.JobContributor.update(owner);
+                GroupRegistry.record(owner);
+            }
+            return;
+        }
+        final GrantTable previous = PropertyTracker.attach(owner, this);
+        if (previous != null) {
+            // identical to the previous matrix of this job, e.g. when a Pipeline re-applies its job properties
+            grantTable = previous;
+        } else {
+            AmbiguityMonitor.JobContributor.update(owner);
+        }
+        GroupRegistry.record(owner);
     }
 
+    /**
+     * Matrices are equal if they grant the same permissions and use equal inheritance strategies.
+     */
     /**
      * Persist {@link AuthorizationMatrixProperty} as a list of IDs that
      * represent {@link AuthorizationMatrixProperty#getGrantedPermissionEntries()}.
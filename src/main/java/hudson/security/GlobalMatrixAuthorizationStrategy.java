@@ -23,32 +23,36 @@
  */
 package hudson.security;
 
-import edu.umd.cs.findbugs.annotations.CheckForNull;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.PluginManager;
+import hudson.init.Terminator;
 import hudson.model.Descriptor;
 import hudson.model.User;
 import hudson.util.FormValidation;
 import java.io.IOException;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.ScheduledFuture;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
 import net.sf.json.JSONObject;
-import org.acegisecurity.acls.sid.PrincipalSid;
-import org.acegisecurity.acls.sid.Sid;
 import org.jenkinsci.plugins.matrixauth.AbstractAuthorizationContainerConverter;
 import org.jenkinsci.plugins.matrixauth.AuthorizationContainer;
 import org.jenkinsci.plugins.matrixauth.AuthorizationContainerDescriptor;
 import org.jenkinsci.plugins.matrixauth.AuthorizationType;
+import org.jenkinsci.plugins.matrixauth.ContainerACL;
+import org.jenkinsci.plugins.matrixauth.GrantTable;
 import org.jenkinsci.plugins.matrixauth.Messages;
 import org.jenkinsci.plugins.matrixauth.PermissionEntry;
 import org.kohsuke.accmod.Restricted;
@@ -60,18 +64,14 @@ import org.kohsuke.stapler.StaplerRequest2;
 /**
  * Role-based authorization via a matrix.
  */
-// TODO: think about the concurrency commitment of this class
 public class GlobalMatrixAuthorizationStrategy extends AuthorizationStrategy
         implements AuthorizationContainer<AuthorizationStrategy> {
-    private final transient SidACL acl = new AclImpl();
+    private final transient SidACL acl = new ContainerACL(this);
 
     /**
-     * List up all permissions that are granted.
-     *
+     * The permissions granted, and the groups recorded, by this container.
      */
-    private final Map<Permission, Set<PermissionEntry>> grantedPermissions = new HashMap<>();
-
-    private final Set<String> groupSids = new HashSet<>();
+    private transient volatile GrantTable grantTable = GrantTable.EMPTY;
 
     /**
      * List of permissions considered dangerous to grant to non-admin users.
@@ -84,7 +84,19 @@ public class GlobalMatrixAuthorizationStrategy extends AuthorizationStrategy
 
     @Override
     public Map<Permission, Set<PermissionEntry>> getGrantedPermissionEntries() {
-        return grantedPermissions;
+        return grantTable.getGrants();
+    }
+
+    @Override
+    @Restricted(NoExternalUse.class)
+    public GrantTable getGrantTable() {
+        return grantTable;
+    }
+
+    @Override
+    @Restricted(NoExternalUse.class)
+    public synchronized void updateGrantTable(UnaryOperator<GrantTable> update) {
+        grantTable = update.apply(grantTable);
     }
 
     @Override
@@ -102,22 +114,13 @@ public class GlobalMatrixAuthorizationStrategy extends AuthorizationStrategy
     @NonNull
     public Set<String> getGroups() {
         final TreeSet<String> sids = new TreeSet<>(new IdStrategyComparator());
-        sids.addAll(groupSids);
+        sids.addAll(grantTable.getGroups());
         return sids;
     }
 
     @Override
     public void recordGroup(String sid) {
-        this.groupSids.add(sid);
-    }
-
-    private final class AclImpl extends SidACL {
-        @CheckForNull
-        protected Boolean hasPermission(Sid p, Permission permission) {
-            if (GlobalMatrixAuthorizationStrategy.this.hasPermission(
-                    toString(p), permission, p instanceof PrincipalSid)) return true;
-            return null;
-        }
+        updateGrantTable(table -> table.withGroup(sid));
     }
 
     @Extension
@@ -125,7 +128,7 @@ public class GlobalMatrixAuthorizationStrategy extends AuthorizationStrategy
 
     /**
      * Persist {@link GlobalMatrixAuthorizationStrategy} as a list of IDs that
-     * represent {@link GlobalMatrixAuthorizationStrategy#grantedPermissions}.
+     * represent {@link GlobalMatrixAuthorizationStrategy#getGrantedPermissionEntries()}.
      */
     @Restricted(NoExternalUse.class)
     public static class ConverterImpl
@@ -165,6 +168,8 @@ public class GlobalMatrixAuthorizationStrategy extends AuthorizationStrategy
             // AuthorizationPropertyDescriptor?
             GlobalMatrixAuthorizationStrategy globalMatrixAuthorizationStrategy = create();
             Map<String, Object> data = formData.getJSONObject("data");
+            final GrantTable.Builder builder =
+                    new GrantTable.Builder(globalMatrixAuthorizationStrategy.getGrantTable());
 
             boolean adminAdded = false;
 
@@ -195,7 +200,7 @@ public class GlobalMatrixAuthorizationStrategy extends AuthorizationStrategy
                             if (p == Jenkins.ADMINISTER) {
                                 adminAdded = true;
                             }
-                            globalMatrixAuthorizationStrategy.add(p, entry);
+                            builder.add(p, entry);
                         }
                     }
                 }
@@ -209,9 +214,9 @@ public class GlobalMatrixAuthorizationStrategy extends AuthorizationStrategy
                 } else {
                     id = current.getId();
                 }
-                globalMatrixAuthorizationStrategy.add(
-                        Jenkins.ADMINISTER, new PermissionEntry(AuthorizationType.USER, id));
+                builder.add(Jenkins.ADMINISTER, new PermissionEntry(AuthorizationType.USER, id));
             }
+            globalMatrixAuthorizationStrategy.updateGrantTable(table -> GrantTable.intern(builder.build()));
 
             return globalMatrixAuthorizationStrategy;
         }
@@ -227,27 +232,109 @@ public class GlobalMatrixAuthorizationStrategy extends AuthorizationStrategy
         }
     }
 
+    /**
+     * Saves the global configuration now if permissions granted through {@link PermissionAdder} have not been saved
+     * yet.
+     * <p>
+     * Such grants take effect immediately, but when many permissions are granted in a row, saving all but the first is
+     * delayed a little, so that the configuration is written only once more. Grants of {@link Jenkins#ADMINISTER} are
+     * always saved immediately. Callers that need all grants to be persisted when they return, e.g. before a restart,
+     * should call this method.
+     *
+     * @since TODO
+     */
+    public static void flushPendingSave() throws IOException {
+        PermissionAdderImpl.flush();
+    }
+
     @Restricted(DoNotUse.class)
     @Extension
     public static final class PermissionAdderImpl extends PermissionAdder {
 
+        /**
+         * How long to wait for further grants before saving, in milliseconds. Set to 0 to save after every grant.
+         * Grants of {@link Jenkins#ADMINISTER}, and the first grant after a period without grants, are always saved
+         * immediately, so that e.g. the first user signing up does not lose administrative access if Jenkins is
+         * stopped abruptly. Only grants following within this period are saved together.
+         */
+        private static final long SAVE_DELAY_MILLIS = SystemProperties.getLong(
+                GlobalMatrixAuthorizationStrategy.class.getName() + ".permissionAdderSaveDelayMillis", 1000L);
+
+        private static final Object SAVE_LOCK = new Object();
+
+        /**
+         * The save scheduled at the end of the current period, if any. Guarded by {@link #SAVE_LOCK}.
+         */
+        private static ScheduledFuture<?> pendingSave;
+
+        /**
+         * Whether there are grants that have not been saved yet. Guarded by {@link #SAVE_LOCK}.
+         */
+        private static boolean unsaved;
+
         @Override
         public boolean add(AuthorizationStrategy strategy, User user, Permission perm) {
             if (strategy instanceof GlobalMatrixAuthorizationStrategy) {
                 ((GlobalMatrixAuthorizationStrategy) strategy).add(perm, PermissionEntry.user(user.getId()));
-                try {
-                    Jenkins.get().save();
-                } catch (IOException ioe) {
-                    LOGGER.log(
-                            Level.WARNING,
-                            "Failed to save Jenkins after adding permission for user: " + user.getId(),
-                            ioe);
+                if (scheduleSave(perm)) {
+                    try {
+                        Jenkins.get().save();
+                    } catch (IOException ioe) {
+                        LOGGER.log(
+                                Level.WARNING,
+                                "Failed to save Jenkins after adding permission for user: " + user.getId(),
+                                ioe);
+                    }
                 }
                 return true;
             } else {
                 return false;
             }
         }
+
+        /**
+         * Returns whether the grant of the specified permission needs to be saved immediately. Otherwise, it is saved
+         * at the end of the current period.
+         */
+        private static boolean scheduleSave(Permission perm) {
+            synchronized (SAVE_LOCK) {
+                final boolean immediately = SAVE_DELAY_MILLIS <= 0 || perm == Jenkins.ADMINISTER || pendingSave == null;
+                if (SAVE_DELAY_MILLIS > 0 && pendingSave == null) {
+                    pendingSave = Timer.get().schedule(PermissionAdderImpl::save, SAVE_DELAY_MILLIS, MILLISECONDS);
+                }
+                // an immediate save includes all previous grants
+                unsaved = !immediately;
+                return immediately;
+            }
+        }
+
+        private static void save() {
+            try {
+                flush();
+            } catch (IOException ioe) {
+                LOGGER.log(Level.WARNING, "Failed to save Jenkins after adding permissions", ioe);
+            }
+        }
+
+        /* package */ static void flush() throws IOException {
+            synchronized (SAVE_LOCK) {
+                if (pendingSave != null) {
+                    // no effect if called from the scheduled save itself
+                    pendingSave.cancel(false);
+                    pendingSave = null;
+                }
+                if (!unsaved) {
+                    return;
+                }
+                unsaved = false;
+            }
+            Jenkins.get().save();
+        }
+
+        @Terminator
+        public static void flushOnShutdown() {
+            save();
+        }
     }
 
     private static final Logger LOGGER = Logger.getLogger(GlobalMatrixAuthorizationStrategy.class.getName());
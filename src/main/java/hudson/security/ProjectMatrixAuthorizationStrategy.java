@@ -25,6 +25,7 @@ package hudson.security;
 
 import com.cloudbees.hudson.plugins.folder.AbstractFolder;
 import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.Extension;
 import hudson.model.AbstractItem;
 import hudson.model.Descriptor;
@@ -32,13 +33,30 @@ import hudson.model.Item;
 import hudson.model.ItemGroup;
 import hudson.model.Job;
 import hudson.model.Node;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
 import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
 import org.jenkinsci.plugins.matrixauth.AuthorizationMatrixNodeProperty;
+import org.jenkinsci.plugins.matrixauth.GroupRegistry;
 import org.jenkinsci.plugins.matrixauth.Messages;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.DoNotUse;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.springframework.security.core.Authentication;
 
 /**
  * {@link GlobalMatrixAuthorizationStrategy} plus per-project ACL.
@@ -49,6 +67,28 @@ import org.kohsuke.accmod.restrictions.DoNotUse;
  * @author Kohsuke Kawaguchi
  */
 public class ProjectMatrixAuthorizationStrategy extends GlobalMatrixAuthorizationStrategy {
+    /**
+     * Minimum number of items for {@link #hasPermission2(Authentication, Permission, Collection)} to check them in
+     * parallel.
+     */
+    @Restricted(NoExternalUse.class)
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for testing")
+    static /* not final */ int PARALLEL_THRESHOLD = 512;
+
+    /**
+     * Maximum number of threads checking items in parallel.
+     */
+    private static final int PARALLELISM = Math.max(
+            1,
+            SystemProperties.getInteger(
+                    ProjectMatrixAuthorizationStrategy.class.getName() + ".parallelism",
+                    Math.min(4, Runtime.getRuntime().availableProcessors())));
+
+    /**
+     * The result of {@link #getGroups()} and the group sets it was computed from.
+     */
+    private transient volatile Map.Entry<List<Object>, Set<String>> groups;
+
     @Override
     @NonNull
     public ACL getACL(@NonNull Job<?, ?> project) {
@@ -95,31 +135,133 @@ public class ProjectMatrixAuthorizationStrategy extends GlobalMatrixAuthorizatio
         return getACL(item.getParent());
     }
 
-    @Override
+    /**
+     * Checks whether the specified user has the specified permission on each of the specified items.
+     * This is equivalent to calling {@code item.getACL().hasPermission2(a, p)} for each item, but items sharing an
+     * effective ACL, like the items in a folder without their own permission matrix, are only checked once,
+     * and large batches are checked in parallel by a bounded pool of threads owned by this plugin.
+     *
+     * @param a the user
+     * @param p the permission
+     * @param items the items to check
+     * @return the decisions, with the bit at index {@code i} set if permission is granted on the {@code i}-th item
+     *     in iteration order of {@code items}
+     * @since TODO
+     */
     @NonNull
-    public Set<String> getGroups() {
-        Set<String> r = new TreeSet<>(new IdStrategyComparator());
-        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
-            r.addAll(super.getGroups());
-            for (Job<?, ?> j : Jenkins.get().getAllItems(Job.class)) {
-                AuthorizationMatrixProperty jobProperty = j.getProperty(AuthorizationMatrixProperty.class);
-                if (jobProperty != null) r.addAll(jobProperty.getGroups());
-            }
-            for (AbstractFolder<?> j : Jenkins.get().getAllItems(AbstractFolder.class)) {
-                com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty folderProperty =
-                        j.getProperties()
-                                .get(com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty.class);
-                if (folderProperty != null) r.addAll(folderProperty.getGroups());
+    public BitSet hasPermission2(
+            @NonNull Authentication a, @NonNull Permission p, @NonNull Collection<? extends Item> items) {
+        final List<? extends Item> list = items instanceof List ? (List<? extends Item>) items : new ArrayList<>(items);
+
+        // siblings are likely to share their effective ACL, so keep them in the same task
+        final Map<ItemGroup<?>, List<Integer>> siblings = new LinkedHashMap<>();
+        for (int i = 0; i < list.size(); i++) {
+            siblings.computeIfAbsent(list.get(i).getParent(), g -> new ArrayList<>()).add(i);
+        }
+        final int[] order = siblings.values().stream()
+                .flatMap(List::stream)
+                .mapToInt(Integer::intValue)
+                .toArray();
+
+        final BulkCheck check = new BulkCheck(a, p, list, order, 0, order.length, new ConcurrentHashMap<>());
+        if (order.length < PARALLEL_THRESHOLD) {
+            return check.compute();
+        }
+        return BulkCheck.POOL.invoke(check);
+    }
+
+    private static final class BulkCheck extends RecursiveTask<BitSet> {
+        /**
+         * Runs large batches, rather than the common pool shared with unrelated work in Jenkins and other plugins.
+         * Its threads do not handle the current request, so the {@link org.jenkinsci.plugins.matrixauth.RequestMemo}
+         * is not used for these checks, but decisions are shared by all tasks of a batch.
+         */
+        private static final ForkJoinPool POOL = new ForkJoinPool(
+                PARALLELISM,
+                pool -> {
+                    final ForkJoinWorkerThread thread =
+                            ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+                    thread.setName("Matrix Authorization bulk check " + thread.getPoolIndex());
+                    return thread;
+                },
+                null,
+                false,
+                0,
+                PARALLELISM,
+                1,
+                pool -> true, // run blocked tasks without compensating threads rather than exceed the maximum size
+                1,
+                TimeUnit.MINUTES);
+
+        private final Authentication a;
+        private final Permission p;
+        private final List<? extends Item> items;
+        private final int[] order;
+        private final int from;
+        private final int to;
+        /**
+         * Decisions by effective ACL, shared by all tasks of a batch.
+         */
+        private final Map<ACL, Boolean> decisions;
+
+        BulkCheck(
+                Authentication a,
+                Permission p,
+                List<? extends Item> items,
+                int[] order,
+                int from,
+                int to,
+                Map<ACL, Boolean> decisions) {
+            this.a = a;
+            this.p = p;
+            this.items = items;
+            this.order = order;
+            this.from = from;
+            this.to = to;
+            this.decisions = decisions;
+        }
+
+        @Override
+        protected BitSet compute() {
+            if (to - from >= PARALLEL_THRESHOLD) {
+                final int middle = (from + to) >>> 1;
+                final BulkCheck left = new BulkCheck(a, p, items, order, from, middle, decisions);
+                left.fork();
+                final BitSet result = new BulkCheck(a, p, items, order, middle, to, decisions).compute();
+                result.or(left.join());
+                return result;
             }
-            for (Node node : Jenkins.get().getNodes()) {
-                AuthorizationMatrixNodeProperty nodeProperty =
-                        node.getNodeProperty(AuthorizationMatrixNodeProperty.class);
-                if (nodeProperty != null) {
-                    r.addAll(nodeProperty.getGroups());
+            final BitSet result = new BitSet(items.size());
+            for (int i = from; i < to; i++) {
+                final int index = order[i];
+                final ACL acl = items.get(index).getACL();
+                Boolean granted = decisions.get(acl);
+                if (granted == null) {
+                    granted = acl.hasPermission2(a, p);
+                    decisions.putIfAbsent(acl, granted);
+                }
+                if (granted) {
+                    result.set(index);
                 }
             }
+            return result;
+        }
+    }
+
+    @Override
+    @NonNull
+    public Set<String> getGroups() {
+        final Set<String> global = getGrantTable().getGroups();
+        final SortedSet<String> items = GroupRegistry.get().getGroups();
+        Map.Entry<List<Object>, Set<String>> groups = this.groups;
+        if (groups == null || groups.getKey().get(0) != global || groups.getKey().get(1) != items) {
+            final SortedSet<String> r = new TreeSet<>(items.comparator());
+            r.addAll(global);
+            r.addAll(items);
+            groups = Map.entry(List.of(global, items), Collections.unmodifiableSortedSet(r));
+            this.groups = groups;
         }
-        return r;
+        return groups.getValue();
     }
 
     @Extension
@@ -28,64 +28,147 @@ import com.thoughtworks.xstream.converters.MarshallingContext;
 import com.thoughtworks.xstream.converters.UnmarshallingContext;
 import com.thoughtworks.xstream.io.HierarchicalStreamReader;
 import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
-import hudson.security.Permission;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import hudson.util.RobustReflectionConverter;
-import java.util.Comparator;
 import java.util.Map;
-import java.util.Set;
-import java.util.SortedMap;
-import java.util.TreeMap;
-import java.util.TreeSet;
+import java.util.function.Consumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
 
+/**
+ * Persists the permissions of an {@link AuthorizationContainer}.
+ * <p>
+ * By default, every permission granted to an entry is written as a separate element:
+ * <pre>{@code
+ * <permission>USER:hudson.model.Item.Build:alice</permission>
+ * <permission>USER:hudson.model.Item.Read:alice</permission>
+ * }</pre>
+ * If {@link #COMPACT_FORMAT} is set, all permissions granted to an entry are written into a single element instead:
+ * <pre>{@code
+ * <grant type="USER" sid="alice">hudson.model.Item.Build,hudson.model.Item.Read</grant>
+ * }</pre>
+ * Both formats, as well as the legacy {@code permission} format without type, are always read, so the option can be
+ * disabled again without losing configuration.
+ */
 @Restricted(NoExternalUse.class)
 public abstract class AbstractAuthorizationContainerConverter<T extends AuthorizationContainer> implements Converter {
+    /**
+     * Whether to write the compact format described above.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ boolean COMPACT_FORMAT =
+            SystemProperties.getBoolean(AbstractAuthorizationContainerConverter.class.getName() + ".compactFormat");
+
     public abstract boolean canConvert(Class type);
 
     public abstract T create();
 
-    @SuppressWarnings("unchecked")
     public void marshal(Object source, HierarchicalStreamWriter writer, MarshallingContext context) {
-        final Comparator<PermissionEntry> comparator = new AuthorizationContainer.PermissionEntryComparator();
-
         if (!canConvert(source.getClass())) {
             throw new IllegalArgumentException("cannot marshal object of type " + source.getClass());
         }
-        T container = (T) source;
-
-        // Output in alphabetical order for readability.
-        SortedMap<Permission, Set<PermissionEntry>> sortedPermissions = new TreeMap<>(Permission.ID_COMPARATOR);
-        sortedPermissions.putAll(container.getGrantedPermissionEntries());
-
-        for (Map.Entry<Permission, Set<PermissionEntry>> e : sortedPermissions.entrySet()) {
-            String p = e.getKey().getId();
-            Set<PermissionEntry> entries = new TreeSet<>(comparator);
-            entries.addAll(e.getValue());
+        final AuthorizationContainer<?> container = (AuthorizationContainer<?>) source;
 
-            for (PermissionEntry entry : entries) {
-                writer.startNode("permission");
-                writer.setValue(entry.getType().toPrefix() + p + ':' + entry.getSid());
+        if (COMPACT_FORMAT) {
+            for (Map.Entry<PermissionEntry, String> e :
+                    container.getGrantTable().getCompactSerializedForm().entrySet()) {
+                writer.startNode("grant");
+                writer.addAttribute("type", e.getKey().getType().name());
+                writer.addAttribute("sid", e.getKey().getSid());
+                writer.setValue(e.getValue());
                 writer.endNode();
             }
+            return;
+        }
+
+        // Output in alphabetical order for readability. The snapshot caches the sorted lines.
+        for (String line : container.getGrantTable().getSerializedForm()) {
+            writer.startNode("permission");
+            writer.setValue(line);
+            writer.endNode();
         }
     }
 
     protected void unmarshalContainer(
             T container, HierarchicalStreamReader reader, final UnmarshallingContext context) {
+        final AuthorizationContainer<?> c = container; // T has a raw bound, so use a typed reference
+        final GrantTable.Builder builder = new GrantTable.Builder(c.getGrantTable());
+        final Consumer<IllegalArgumentException> onError = ex -> skip(ex, context);
         while (reader.hasMoreChildren()) {
             reader.moveDown();
-            try {
-                container.add(reader.getValue());
-            } catch (IllegalArgumentException ex) {
-                Logger.getLogger(AbstractAuthorizationContainerConverter.class.getName())
-                        .log(Level.WARNING, "Skipping a non-existent permission", ex);
-                RobustReflectionConverter.addErrorInContext(context, ex);
+            if ("grant".equals(reader.getNodeName())) {
+                final String type = reader.getAttribute("type");
+                final String sid = reader.getAttribute("sid");
+                parseGrant(c, type, sid, reader.getValue(), builder, onError);
+            } else {
+                parseLine(c, reader.getValue(), builder, onError);
             }
             reader.moveUp();
         }
+        c.updateGrantTable(table -> GrantTable.intern(builder.build()));
+    }
+
+    /**
+     * Parses the value of a {@code permission} element.
+     */
+    /* package */ static void parseLine(
+            AuthorizationContainer<?> container,
+            String line,
+            GrantTable.Builder builder,
+            Consumer<IllegalArgumentException> onError) {
+        try {
+            container.parse(line, builder::add);
+        } catch (IllegalArgumentException ex) {
+            onError.accept(ex);
+        }
+    }
+
+    /**
+     * Parses a {@code grant} element, see {@link #COMPACT_FORMAT}.
+     */
+    /* package */ static void parseGrant(
+            AuthorizationContainer<?> container,
+            @CheckForNull String type,
+            @CheckForNull String sid,
+            String ids,
+            GrantTable.Builder builder,
+            Consumer<IllegalArgumentException> onError) {
+        final AuthorizationType authorizationType;
+        try {
+            if (type == null || sid == null) {
+                throw new IllegalArgumentException("Missing type or sid in grant of: " + ids);
+            }
+            authorizationType = AuthorizationType.valueOf(type);
+        } catch (IllegalArgumentException ex) {
+            onError.accept(ex);
+            return;
+        }
+        int start = 0;
+        while (start < ids.length()) {
+            int end = ids.indexOf(GrantTable.COMPACT_SEPARATOR, start);
+            if (end < 0) {
+                end = ids.length();
+            }
+            final String id = ids.substring(start, end).trim();
+            if (!id.isEmpty()) {
+                try {
+                    container.parse(authorizationType, id, sid, builder::add);
+                } catch (IllegalArgumentException ex) {
+                    onError.accept(ex);
+                }
+            }
+            start = end + 1;
+        }
+    }
+
+    private static void skip(IllegalArgumentException ex, UnmarshallingContext context) {
+        Logger.getLogger(AbstractAuthorizationContainerConverter.class.getName())
+                .log(Level.WARNING, "Skipping a non-existent permission", ex);
+        RobustReflectionConverter.addErrorInContext(context, ex);
     }
 
     public Object unmarshal(HierarchicalStreamReader reader, final UnmarshallingContext context) {
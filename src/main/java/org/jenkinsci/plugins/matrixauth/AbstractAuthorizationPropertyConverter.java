@@ -28,8 +28,10 @@ import com.thoughtworks.xstream.converters.UnmarshallingContext;
 import com.thoughtworks.xstream.io.ExtendedHierarchicalStreamReader;
 import com.thoughtworks.xstream.io.HierarchicalStreamReader;
 import com.thoughtworks.xstream.io.HierarchicalStreamWriter;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
 import org.jenkinsci.plugins.matrixauth.inheritance.InheritanceStrategy;
 import org.jenkinsci.plugins.matrixauth.inheritance.NonInheritingStrategy;
 import org.kohsuke.accmod.Restricted;
@@ -38,6 +40,17 @@ import org.kohsuke.accmod.restrictions.NoExternalUse;
 @Restricted(NoExternalUse.class)
 public abstract class AbstractAuthorizationPropertyConverter<T extends AuthorizationProperty>
         extends AbstractAuthorizationContainerConverter<T> {
+    /**
+     * Whether job and folder properties should keep their permission assignments unparsed until first used, e.g. for
+     * an authorization check. This speeds up startup and saves memory for items that are never used.
+     * Until then, {@link AmbiguityMonitor} and {@link GroupRegistry} use what {@link MatrixSnapshot} recorded for these
+     * properties if it is enabled and current, and otherwise do not consider them at all. Invalid assignments are only
+     * logged rather than reported as old data.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ boolean LAZY_LOADING =
+            SystemProperties.getBoolean(AbstractAuthorizationPropertyConverter.class.getName() + ".lazyLoading");
+
     public abstract boolean canConvert(Class type);
 
     public abstract T create();
@@ -86,6 +99,11 @@ public abstract class AbstractAuthorizationPropertyConverter<T extends Authoriza
             reader.moveUp();
         }
 
+        if (LAZY_LOADING && container.supportsPendingGrants()) {
+            container.setPendingGrants(PendingGrants.read(reader));
+            return;
+        }
+
         // let the super handle the permissions that are always towards the end
         super.unmarshalContainer(container, reader, context);
     }
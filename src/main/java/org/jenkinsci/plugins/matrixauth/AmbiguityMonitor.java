@@ -23,6 +23,7 @@
  */
 package org.jenkinsci.plugins.matrixauth;
 
+import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.ExtensionList;
@@ -37,24 +38,39 @@ import hudson.model.Node;
 import hudson.model.Saveable;
 import hudson.model.listeners.ItemListener;
 import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
 import hudson.security.AuthorizationMatrixProperty;
 import hudson.security.AuthorizationStrategy;
 import hudson.security.GlobalMatrixAuthorizationStrategy;
 import hudson.security.ProjectMatrixAuthorizationStrategy;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.TreeMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import jenkins.model.Jenkins;
 import jenkins.model.NodeListener;
 import jenkins.util.SystemProperties;
+import jenkins.util.Timer;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.verb.GET;
 
 /**
  * Warn when any configuration contains ambiguous permission assignments.
@@ -84,6 +100,10 @@ public class AmbiguityMonitor extends AdministrativeMonitor {
             return false;
         }
 
+        if (startupScanInProgress) {
+            return true;
+        }
+
         List<Contributor> contributors = getContributors();
         for (Contributor contributor : contributors) {
             if (contributor.hasAmbiguousEntries()) {
@@ -94,6 +114,58 @@ public class AmbiguityMonitor extends AdministrativeMonitor {
         return false;
     }
 
+    // for Jelly
+    public int getPageSize() {
+        return PAGE_SIZE;
+    }
+
+    /**
+     * The offset of the first name of the specified contributor to display on the overview page, from the
+     * {@code contributor} and {@code start} query parameters. Other contributors, and offsets out of range, start with
+     * the first name.
+     */
+    // for Jelly
+    public int getStart(Contributor contributor) {
+        final StaplerRequest2 req = Stapler.getCurrentRequest2();
+        if (req == null || !contributor.getClass().getName().equals(req.getParameter("contributor"))) {
+            return 0;
+        }
+        final int start;
+        try {
+            start = Integer.parseInt(req.getParameter("start"));
+        } catch (NumberFormatException ex) {
+            return 0;
+        }
+        final AmbiguousNames names = contributor.getAmbiguousNames();
+        return start < 0 || names == null || start >= names.size() ? 0 : start;
+    }
+
+    /**
+     * Lists the names recorded by a contributor one page at a time, sorted by name, e.g.
+     * {@code GET administrativeMonitor/org.jenkinsci.plugins.matrixauth.AmbiguityMonitor/entries?contributor=
+     * org.jenkinsci.plugins.matrixauth.AmbiguityMonitor$JobContributor&start=100}.
+     * Items and agents are not loaded.
+     */
+    @GET
+    public HttpResponse doEntries(
+            @QueryParameter(required = true) String contributor,
+            @QueryParameter int start,
+            @QueryParameter int count) {
+        checkRequiredPermission();
+        for (Contributor c : getContributors()) {
+            final AmbiguousNames names = c.getAmbiguousNames();
+            if (names != null && c.getClass().getName().equals(contributor)) {
+                final int size = count <= 0 ? PAGE_SIZE : Math.min(count, MAX_PAGE_SIZE);
+                return HttpResponses.okJSON(new JSONObject()
+                        .element("contributor", contributor)
+                        .element("total", names.size())
+                        .element("start", Math.max(start, 0))
+                        .element("names", JSONArray.fromObject(names.getNames(start, size))));
+            }
+        }
+        return HttpResponses.errorJSON("No such contributor: " + contributor);
+    }
+
     /**
      * Implementations must provide a {@code entries.jelly} file to display their ambiguous items as top-level {@code <li>} items (it will be displayed in a {@code <ul>}.
      *
@@ -103,6 +175,21 @@ public class AmbiguityMonitor extends AdministrativeMonitor {
          * Whether there are ambiguous items present.
          */
         boolean hasAmbiguousEntries();
+
+        /**
+         * Records all items this contributor is responsible for, see {@link #isDeferStartupScan()}.
+         */
+        default void recordAll() {}
+
+        /**
+         * The names of ambiguous items recorded by this contributor, or {@code null} if it does not record items.
+         * {@code entries.jelly} is expected to display {@link #PAGE_SIZE} names starting at the offset in the
+         * {@code start} variable; the overview page links to the previous and next pages.
+         */
+        @CheckForNull
+        default AmbiguousNames getAmbiguousNames() {
+            return null;
+        }
     }
 
     // to have it first in the message
@@ -120,20 +207,20 @@ public class AmbiguityMonitor extends AdministrativeMonitor {
 
     @Extension
     public static class NodeContributor implements Contributor {
-        public final Map<String, Boolean> activeNodes = Collections.synchronizedMap(new TreeMap<>());
+        public final AmbiguousNames activeNodes = new AmbiguousNames();
 
         @Override
         public boolean hasAmbiguousEntries() {
             return Jenkins.get().getAuthorizationStrategy() instanceof ProjectMatrixAuthorizationStrategy
-                    && activeNodes.values().stream().anyMatch(v -> v);
+                    && !activeNodes.isEmpty();
         }
 
         public static void record(Node node) {
-            if (!DISABLE) {
+            if (isRecording()) {
                 boolean value = AmbiguityMonitor.hasAmbiguousEntries(
                         node.getNodeProperty(AuthorizationMatrixNodeProperty.class));
                 LOGGER.log(Level.FINE, () -> "Recording node " + node + " as having ambiguous entries? " + value);
-                ExtensionList.lookupSingleton(NodeContributor.class).activeNodes.put(node.getNodeName(), value);
+                ExtensionList.lookupSingleton(NodeContributor.class).activeNodes.record(node.getNodeName(), value);
             }
         }
 
@@ -144,6 +231,29 @@ public class AmbiguityMonitor extends AdministrativeMonitor {
             }
         }
 
+        @Override
+        public void recordAll() {
+            Jenkins.get().getNodes().forEach(NodeContributor::record);
+        }
+
+        @Override
+        public AmbiguousNames getAmbiguousNames() {
+            return activeNodes;
+        }
+
+        // for Jelly
+        public List<Node> getEntries() {
+            return getEntries(0);
+        }
+
+        // for Jelly
+        public List<Node> getEntries(int start) {
+            return activeNodes.getNames(start, PAGE_SIZE).stream()
+                    .map(v -> Jenkins.get().getNode(v))
+                    .filter(Objects::nonNull)
+                    .collect(Collectors.toList());
+        }
+
         @Extension
         public static class NodeListenerImpl extends NodeListener {
             @Override
@@ -167,20 +277,20 @@ public class AmbiguityMonitor extends AdministrativeMonitor {
 
     @Extension
     public static class JobContributor implements Contributor {
-        public final Map<String, Boolean> activeJobs = Collections.synchronizedMap(new TreeMap<>());
+        public final AmbiguousNames activeJobs = new AmbiguousNames();
 
         @Override
         public boolean hasAmbiguousEntries() {
             return Jenkins.get().getAuthorizationStrategy() instanceof ProjectMatrixAuthorizationStrategy
-                    && activeJobs.values().stream().anyMatch(v -> v);
+                    && !activeJobs.isEmpty();
         }
 
         public static void update(Job<?, ?> job) {
-            if (!DISABLE) {
+            if (isRecording()) {
                 boolean value =
-                        AmbiguityMonitor.hasAmbiguousEntries(job.getProperty(AuthorizationMatrixProperty.class));
+                        AmbiguityMonitor.hasAmbiguousEntries(job, job.getProperty(AuthorizationMatrixProperty.class));
                 LOGGER.log(Level.FINE, () -> "Recording job " + job + " as having ambiguous entries? " + value);
-                ExtensionList.lookupSingleton(JobContributor.class).activeJobs.put(job.getFullName(), value);
+                ExtensionList.lookupSingleton(JobContributor.class).activeJobs.record(job.getFullName(), value);
             }
         }
 
@@ -191,14 +301,28 @@ public class AmbiguityMonitor extends AdministrativeMonitor {
             }
         }
 
+        @Override
+        public void recordAll() {
+            for (Job<?, ?> job : Jenkins.get().getAllItems(Job.class)) {
+                update(job);
+            }
+        }
+
+        @Override
+        public AmbiguousNames getAmbiguousNames() {
+            return activeJobs;
+        }
+
         // for Jelly
         public List<Item> getEntries() {
-            return activeJobs.entrySet().stream()
-                    .filter(Map.Entry::getValue)
-                    .map(Map.Entry::getKey)
+            return getEntries(0);
+        }
+
+        // for Jelly
+        public List<Item> getEntries(int start) {
+            return activeJobs.getNames(start, PAGE_SIZE).stream()
                     .map(v -> Jenkins.get().getItemByFullName(v))
                     .filter(Objects::nonNull)
-                    .sorted(Comparator.comparing(Item::getFullDisplayName, String.CASE_INSENSITIVE_ORDER))
                     .collect(Collectors.toList());
         }
 
@@ -234,11 +358,106 @@ public class AmbiguityMonitor extends AdministrativeMonitor {
         }
     }
 
+    /**
+     * Names of jobs, folders, or agents with ambiguous entries. Others are not stored.
+     */
+    public static final class AmbiguousNames {
+        private final Set<String> names = ConcurrentHashMap.newKeySet();
+
+        /**
+         * The size of {@link #names}, which is expensive to compute for concurrent sets.
+         */
+        private final AtomicInteger size = new AtomicInteger();
+
+        /**
+         * Incremented whenever {@link #names} changes.
+         */
+        private final AtomicLong modifications = new AtomicLong();
+
+        /**
+         * Sorted copy of {@link #names}, keyed by the value of {@link #modifications} it was created for.
+         */
+        private volatile Map.Entry<Long, List<String>> sorted;
+
+        /**
+         * Records whether the named item or agent has ambiguous entries.
+         */
+        public void record(String name, boolean ambiguous) {
+            if (ambiguous) {
+                if (names.add(name)) {
+                    size.incrementAndGet();
+                    modifications.incrementAndGet();
+                }
+            } else {
+                remove(name);
+            }
+        }
+
+        public void remove(String name) {
+            if (names.remove(name)) {
+                size.decrementAndGet();
+                modifications.incrementAndGet();
+            }
+        }
+
+        public boolean contains(String name) {
+            return names.contains(name);
+        }
+
+        public int size() {
+            return size.get();
+        }
+
+        public boolean isEmpty() {
+            return size.get() == 0;
+        }
+
+        /**
+         * Returns the recorded names, sorted case-insensitively. The result must not be modified.
+         */
+        public List<String> getNames() {
+            final long modifications = this.modifications.get();
+            Map.Entry<Long, List<String>> sorted = this.sorted;
+            if (sorted == null || sorted.getKey() != modifications) {
+                final List<String> result = new ArrayList<>(names);
+                result.sort(String.CASE_INSENSITIVE_ORDER.thenComparing(Comparator.naturalOrder()));
+                sorted = Map.entry(modifications, Collections.unmodifiableList(result));
+                this.sorted = sorted;
+            }
+            return sorted.getValue();
+        }
+
+        /**
+         * Returns up to {@code count} of the recorded names, starting at index {@code start} of {@link #getNames()}.
+         */
+        public List<String> getNames(int start, int count) {
+            final List<String> names = getNames();
+            final int from = Math.min(Math.max(start, 0), names.size());
+            return names.subList(from, Math.min(from + Math.max(count, 0), names.size()));
+        }
+    }
+
     public static boolean hasAmbiguousEntries(final AuthorizationContainer<?> container) {
         if (container == null) {
             return false;
         }
-        return container.getAllPermissionEntries().stream().anyMatch(e -> e.getType() == AuthorizationType.EITHER);
+        return container.getGrantTable().getAmbiguousEntries() > 0;
+    }
+
+    /**
+     * Like {@link #hasAmbiguousEntries(AuthorizationContainer)}, but does not parse
+     * {@link AuthorizationProperty#hasPendingGrants() pending} permission assignments: the {@link MatrixSnapshot} is
+     * used if possible, otherwise the property is not considered until it is parsed.
+     */
+    public static boolean hasAmbiguousEntries(final Item item, final AuthorizationProperty<?> property) {
+        final MatrixSnapshot.Entry entry = MatrixSnapshot.lookup(item);
+        if (entry != null) {
+            return entry.isAmbiguous();
+        }
+        if (property != null && property.hasPendingGrants()) {
+            return false;
+        }
+        return hasAmbiguousEntries(property);
     }
 
     @Extension
@@ -250,9 +469,13 @@ public class AmbiguityMonitor extends AdministrativeMonitor {
             }
             try {
                 if (o instanceof Job) {
+                    final Job<?, ?> job = (Job<?, ?>) o;
+                    if (PropertyTracker.isCurrent(job, job.getProperty(AuthorizationMatrixProperty.class))) {
+                        return; // unchanged since the last update
+                    }
                     LOGGER.log(Level.FINEST, () -> "Recording update to Saveable " + o + " stored in " + file);
 
-                    JobContributor.update((Job<?, ?>) o);
+                    JobContributor.update(job);
                 }
             } catch (Exception ex) {
                 LOGGER.log(Level.WARNING, ex, () -> "Exception while updating status for " + o);
@@ -266,15 +489,91 @@ public class AmbiguityMonitor extends AdministrativeMonitor {
      */
     @Initializer(after = InitMilestone.SYSTEM_CONFIG_ADAPTED)
     public static void recordAgents() {
+        if (startupScanPending) {
+            return; // recorded by the startup scan
+        }
         LOGGER.log(Level.FINE, () -> "Recording nodes");
         Jenkins.get().getNodes().forEach(NodeContributor::record);
     }
 
+    /**
+     * Schedules the deferred startup scan, see {@link #isDeferStartupScan()}.
+     */
+    @Initializer(after = InitMilestone.COMPLETED)
+    public static void scheduleStartupScan() {
+        if (!startupScanPending) {
+            return;
+        }
+        // From now on, changes are recorded as usual. The scan may record some items again, which is harmless.
+        startupScanPending = false;
+        Timer.get().submit(AmbiguityMonitor::scan);
+    }
+
+    /**
+     * Records all items and agents.
+     */
+    /* package */ static void scan() {
+        LOGGER.log(Level.FINE, () -> "Scanning for ambiguous permission assignments");
+        try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+            for (Contributor contributor : ExtensionList.lookup(Contributor.class)) {
+                try {
+                    contributor.recordAll();
+                } catch (RuntimeException ex) {
+                    LOGGER.log(Level.WARNING, ex, () -> "Failed to scan for ambiguous entries using " + contributor);
+                }
+            }
+        } finally {
+            startupScanInProgress = false;
+        }
+        LOGGER.log(Level.FINE, () -> "Finished scanning for ambiguous permission assignments");
+    }
+
+    /**
+     * Number of items listed per contributor on the overview page, and default page size of {@link #doEntries}.
+     */
+    public static final int PAGE_SIZE = 100;
+
+    private static final int MAX_PAGE_SIZE = 10_000;
+
     private static /* non-final for Groovy */ boolean DISABLE =
             SystemProperties.getBoolean(AmbiguityMonitor.class.getName() + ".DISABLE");
 
+    /**
+     * Whether to skip ambiguity checks for individual items and agents while they are loaded during startup, and to
+     * check all of them in the background once startup has completed instead.
+     */
+    private static final boolean DEFER_STARTUP_SCAN =
+            SystemProperties.getBoolean(AmbiguityMonitor.class.getName() + ".DEFER_STARTUP_SCAN");
+
+    /**
+     * Whether the deferred startup scan has not been scheduled yet. Individual items and agents are not recorded.
+     */
+    private static volatile boolean startupScanPending = DEFER_STARTUP_SCAN;
+
+    /**
+     * Whether the deferred startup scan has not finished yet.
+     */
+    private static volatile boolean startupScanInProgress = DEFER_STARTUP_SCAN;
+
+    public static boolean isDeferStartupScan() {
+        return DEFER_STARTUP_SCAN;
+    }
+
+    // for Jelly
+    public boolean isStartupScanInProgress() {
+        return startupScanInProgress;
+    }
+
     // "isGatheringData" as "isEnabled" is already defined at the parent level
     public static boolean isGatheringData() {
         return !DISABLE;
     }
+
+    /**
+     * Whether individual items and agents should be recorded when they are loaded or changed.
+     * This is not the case before the deferred startup scan is scheduled, as it will record all of them.
+     */
+    public static boolean isRecording() {
+        return !DISABLE && !startupScanPending;
+    }
 }
@@ -0,0 +1,190 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 Matrix Authorization Strategy Plugin developers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.matrixauth;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.security.ACL;
+import hudson.security.Permission;
+import hudson.security.SecurityRealm;
+import hudson.security.SidACL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import jenkins.model.IdStrategy;
+import jenkins.model.Jenkins;
+import org.acegisecurity.acls.sid.GrantedAuthoritySid;
+import org.acegisecurity.acls.sid.PrincipalSid;
+import org.acegisecurity.acls.sid.Sid;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+
+/**
+ * All sids a permission check for an {@link Authentication} considers, in the form used by {@link PermissionIndex}.
+ * <p>
+ * {@link SidACL} checks the principal, each of its authorities, {@link ACL#EVERYONE} and {@link ACL#ANONYMOUS} one
+ * after the other. This computes their {@link IdStrategy#keyFor(String)} keys once, so that a permission index can
+ * intersect them with the sids granted a permission, instead of being probed once for each of them.
+ */
+@Restricted(NoExternalUse.class)
+public final class AuthoritySet {
+    /**
+     * Authority sets of recently seen authentications.
+     * Keys are weak and compared by identity, which is usually the same while handling a request.
+     */
+    private static final Cache<Authentication, AuthoritySet> CACHE =
+            CacheBuilder.newBuilder().weakKeys().maximumSize(1024).build();
+
+    private static final SidNames SID_NAMES = new SidNames();
+
+    private final IdStrategy userIdStrategy;
+    private final IdStrategy groupIdStrategy;
+    private final List<String> principalNames;
+    private final List<String> groupNames;
+    private final Set<String> principals;
+    private final Set<String> groups;
+    private final int hash;
+
+    private AuthoritySet(Authentication a, IdStrategy userIdStrategy, IdStrategy groupIdStrategy) {
+        this.userIdStrategy = userIdStrategy;
+        this.groupIdStrategy = groupIdStrategy;
+
+        principalNames = new ArrayList<>(2);
+        addName(principalNames, new PrincipalSid(a));
+        addName(principalNames, ACL.ANONYMOUS);
+        groupNames = new ArrayList<>(a.getAuthorities().size() + 1);
+        for (GrantedAuthority ga : a.getAuthorities()) {
+            addName(groupNames, new GrantedAuthoritySid(ga));
+        }
+        addName(groupNames, ACL.EVERYONE);
+
+        principals = principalNames.stream().map(userIdStrategy::keyFor).collect(Collectors.toUnmodifiableSet());
+        groups = groupNames.stream().map(groupIdStrategy::keyFor).collect(Collectors.toUnmodifiableSet());
+        hash = Objects.hash(principals, groups);
+    }
+
+    private static void addName(List<String> names, Sid sid) {
+        final String name = SID_NAMES.toString(sid);
+        if (name != null) {
+            names.add(name);
+        }
+    }
+
+    /**
+     * Returns the authority set of the specified authentication, keyed by the ID strategies of the current
+     * {@link SecurityRealm}.
+     */
+    @NonNull
+    public static AuthoritySet of(@NonNull Authentication a) {
+        final SecurityRealm securityRealm = Jenkins.get().getSecurityRealm();
+        final IdStrategy userIdStrategy = securityRealm.getUserIdStrategy();
+        final IdStrategy groupIdStrategy = securityRealm.getGroupIdStrategy();
+        final AuthoritySet cached = CACHE.getIfPresent(a);
+        if (cached != null && cached.isKeyedBy(userIdStrategy, groupIdStrategy)) {
+            return cached;
+        }
+        final AuthoritySet authorities = new AuthoritySet(a, userIdStrategy, groupIdStrategy);
+        CACHE.put(a, authorities);
+        return authorities;
+    }
+
+    /**
+     * Whether {@link #getPrincipals()} and {@link #getGroups()} are keyed by the specified ID strategies.
+     */
+    public boolean isKeyedBy(IdStrategy userIdStrategy, IdStrategy groupIdStrategy) {
+        return Objects.equals(this.userIdStrategy, userIdStrategy)
+                && Objects.equals(this.groupIdStrategy, groupIdStrategy);
+    }
+
+    /**
+     * The names of the principal sids, i.e. the user and {@link ACL#ANONYMOUS}.
+     */
+    public List<String> getPrincipalNames() {
+        return principalNames;
+    }
+
+    /**
+     * The names of the group sids, i.e. the authorities and {@link ACL#EVERYONE}.
+     */
+    public List<String> getGroupNames() {
+        return groupNames;
+    }
+
+    /**
+     * The user ID strategy keys of {@link #getPrincipalNames()}.
+     */
+    public Set<String> getPrincipals() {
+        return principals;
+    }
+
+    /**
+     * The group ID strategy keys of {@link #getGroupNames()}.
+     */
+    public Set<String> getGroups() {
+        return groups;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        final AuthoritySet that = (AuthoritySet) o;
+        return hash == that.hash
+                && isKeyedBy(that.userIdStrategy, that.groupIdStrategy)
+                && principals.equals(that.principals)
+                && groups.equals(that.groups);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    /**
+     * Provides access to the sid names {@link SidACL} uses.
+     */
+    private static final class SidNames extends SidACL {
+        @Override
+        @CheckForNull
+        protected String toString(Sid p) {
+            return super.toString(p);
+        }
+
+        @Override
+        @CheckForNull
+        protected Boolean hasPermission(Sid p, Permission permission) {
+            return null;
+        }
+    }
+}
@@ -33,11 +33,12 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -118,12 +119,47 @@ public interface AuthorizationContainer<T extends Describable<T>> extends Descri
         }
 
         LOGGER.log(Level.FINE, "Grant permission \"{0}\" to \"{1}\")", new Object[] {permission, entry});
-        getGrantedPermissionEntries()
-                .computeIfAbsent(permission, k -> new HashSet<>())
-                .add(entry);
-        if (entry.getType() != AuthorizationType.USER) {
-            recordGroup(entry.getSid());
-        }
+        updateGrantTable(table -> table.with(permission, entry));
+    }
+
+    /**
+     * Returns the current snapshot of permissions granted by this container.
+     *
+     * @since TODO
+     */
+    @Restricted(NoExternalUse.class)
+    GrantTable getGrantTable();
+
+    /**
+     * Atomically replaces the current snapshot of permissions granted by this container.
+     * The update function may be called while holding a lock and should not block.
+     *
+     * @since TODO
+     */
+    @Restricted(NoExternalUse.class)
+    void updateGrantTable(UnaryOperator<GrantTable> update);
+
+    /**
+     * Returns the generation of the permissions granted by this container.
+     * It changes whenever {@link #getGrantedPermissionEntries()} or {@link #getGroups()} change, but is not ordered,
+     * and may be shared by containers granting identical permissions. Only compare it for equality.
+     *
+     * @see GrantTable#getGeneration()
+     * @since TODO
+     */
+    @Restricted(NoExternalUse.class)
+    default long getGeneration() {
+        return getGrantTable().getGeneration();
+    }
+
+    /**
+     * Returns the {@link PermissionIndex} for {@link #getGrantedPermissionEntries()}.
+     *
+     * @since TODO
+     */
+    @Restricted(NoExternalUse.class)
+    default PermissionIndex getPermissionIndex() {
+        return getGrantTable().getIndex();
     }
 
     /**
@@ -151,9 +187,9 @@ public interface AuthorizationContainer<T extends Describable<T>> extends Descri
     }
 
     /**
-     * Returns a live modifiable map of permissions. This return value needs to
-     * be treated as unmodifiable from shortly after object construction (even
-     * though it isn't for practical reasons).
+     * Returns an unmodifiable snapshot of the granted permissions.
+     * Later grants are not reflected in the returned map, and attempts to modify it throw
+     * {@link UnsupportedOperationException}; use {@link #add(Permission, PermissionEntry)} instead.
      *
      * @since 3.0
      */
@@ -161,6 +197,7 @@ public interface AuthorizationContainer<T extends Describable<T>> extends Descri
 
     /**
      * Internal only: Returns all recorded (possible) group sids to allow populating {@link AuthorizationStrategy#getGroups()}.
+     * The returned set is an unmodifiable snapshot.
      *
      * @since 3.0
      */
@@ -185,6 +222,15 @@ public interface AuthorizationContainer<T extends Describable<T>> extends Descri
      */
     @Restricted(NoExternalUse.class)
     default void add(String shortForm) {
+        parse(shortForm, this::add);
+    }
+
+    /**
+     * Parses a permission assignment as described for {@link #add(String)} and passes the result to the specified
+     * consumer, e.g. to collect many assignments before updating {@link #getGrantTable()} once.
+     */
+    @Restricted(NoExternalUse.class)
+    default void parse(String shortForm, BiConsumer<Permission, PermissionEntry> grant) {
         AuthorizationType type;
         int firstEndIndex = shortForm.indexOf(':');
         String first = shortForm.substring(0, firstEndIndex);
@@ -208,6 +254,19 @@ public interface AuthorizationContainer<T extends Describable<T>> extends Descri
                     "Processing a permission assignment in the legacy format (without explicit TYPE prefix): "
                             + shortForm);
         }
+        parse(type, permissionString, sid, grant);
+    }
+
+    /**
+     * Parses a permission assignment whose parts are already separated, e.g. in the compact format written by
+     * {@link AbstractAuthorizationContainerConverter}, and passes the result to the specified consumer.
+     */
+    @Restricted(NoExternalUse.class)
+    default void parse(
+            AuthorizationType type,
+            String permissionString,
+            String sid,
+            BiConsumer<Permission, PermissionEntry> grant) {
         Permission p = parsePermission(permissionString);
         if (!p.isContainedBy(((AuthorizationContainerDescriptor) getDescriptor()).getPermissionScope())) {
             LOGGER.log(
@@ -215,16 +274,13 @@ public interface AuthorizationContainer<T extends Describable<T>> extends Descri
                     "Tried to add inapplicable permission " + p + " for " + sid + " in " + this + ", skipping");
             return;
         }
-        add(p, new PermissionEntry(type, sid));
+        grant.accept(p, new PermissionEntry(type, sid));
     }
 
     @Restricted(NoExternalUse.class)
     static Permission parsePermission(String permission) {
-        Permission p = Permission.fromId(permission);
-        if (p == null) {
-            // attempt to find the permission based on the 'nice' name, e.g. Overall/Administer
-            p = PermissionFinder.findPermission(permission);
-        }
+        // also accepts the 'nice' name, e.g. Overall/Administer
+        Permission p = PermissionFinder.resolve(permission);
         if (p == null) {
             throw new IllegalArgumentException("Failed to parse '" + permission + "' --- no such permission");
         }
@@ -299,29 +355,7 @@ public interface AuthorizationContainer<T extends Describable<T>> extends Descri
      * Checks if the given SID has the given permission.
      */
     default boolean hasPermission(String sid, Permission p, boolean principal) {
-        final SecurityRealm securityRealm = Jenkins.get().getSecurityRealm();
-        final IdStrategy strategy = principal ? securityRealm.getUserIdStrategy() : securityRealm.getGroupIdStrategy();
-        for (; p != null; p = p.impliedBy) {
-            if (!p.getEnabled()) {
-                continue;
-            }
-            Set<PermissionEntry> set = getGrantedPermissionEntries().get(p);
-            if (set == null) {
-                continue;
-            }
-            if (set.contains(new PermissionEntry(AuthorizationType.EITHER, sid))) {
-                return true;
-            }
-            if (set.contains(new PermissionEntry(principal ? AuthorizationType.USER : AuthorizationType.GROUP, sid))) {
-                return true;
-            }
-            for (PermissionEntry entry : set) {
-                if (entry.isApplicable(principal) && strategy.equals(entry.getSid(), sid)) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return getPermissionIndex().hasPermission(sid, p, principal);
     }
 
     /**
@@ -351,25 +385,6 @@ public interface AuthorizationContainer<T extends Describable<T>> extends Descri
         if (entry == null) { // used for template row in UI
             return false;
         }
-        Set<PermissionEntry> grantedEntries = getGrantedPermissionEntries().get(p);
-        if (grantedEntries != null && p.getEnabled()) {
-            if (grantedEntries.contains(entry)) {
-                return true;
-            }
-            final SecurityRealm securityRealm = Jenkins.get().getSecurityRealm();
-            final IdStrategy groupIdStrategy = securityRealm.getGroupIdStrategy();
-            final IdStrategy userIdStrategy = securityRealm.getUserIdStrategy();
-            for (PermissionEntry s : grantedEntries) {
-                if (s.getType() != entry.getType()) {
-                    // only match if the type provided is identical
-                    continue;
-                }
-                if (userIdStrategy.equals(s.getSid(), entry.getSid())
-                        || groupIdStrategy.equals(s.getSid(), entry.getSid())) {
-                    return true;
-                }
-            }
-        }
-        return false;
+        return getPermissionIndex().hasExplicitPermission(entry, p);
     }
 }
@@ -36,12 +36,12 @@ public interface AuthorizationContainerDescriptor {
     @Restricted(DoNotUse.class) // Called from Jelly view to show fancy tool tips
     default String getDescription(Permission p) {
         String description = p.description == null ? "" : p.description.toString();
-        Permission impliedBy = p.impliedBy;
-        while (impliedBy != null && impliedBy.group == PermissionGroup.get(Permission.class)) {
-            if (impliedBy.impliedBy == null) {
+        Permission impliedBy = null;
+        for (Permission ancestor : PermissionGraph.get().getImpliedBy(p)) {
+            impliedBy = ancestor;
+            if (ancestor.group != PermissionGroup.get(Permission.class) || ancestor.impliedBy == null) {
                 break;
             }
-            impliedBy = impliedBy.impliedBy;
         }
         if (p != Jenkins.ADMINISTER) {
             // only annotate permissions that aren't Administer
@@ -87,12 +87,7 @@ public interface AuthorizationContainerDescriptor {
     @Restricted(NoExternalUse.class)
     @SuppressWarnings("unused") // Used from Jelly
     default String impliedByList(Permission p) {
-        List<Permission> impliedBys = new ArrayList<>();
-        while (p.impliedBy != null) {
-            p = p.impliedBy;
-            impliedBys.add(p);
-        }
-        return impliedBys.stream().map(Permission::getId).collect(Collectors.joining(" "));
+        return PermissionGraph.get().getImpliedBy(p).stream().map(Permission::getId).collect(Collectors.joining(" "));
     }
 
     @Restricted(DoNotUse.class) // Called from Jelly view
@@ -116,7 +111,7 @@ public interface AuthorizationContainerDescriptor {
         if (container == null) {
             return false;
         }
-        return container.getAllPermissionEntries().stream().anyMatch(e -> e.getType() == AuthorizationType.EITHER);
+        return container.getGrantTable().getAmbiguousEntries() > 0;
     }
 
     @Restricted(DoNotUse.class) // Jelly only
@@ -23,7 +23,6 @@
  */
 package org.jenkinsci.plugins.matrixauth;
 
-import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import hudson.Extension;
 import hudson.model.Computer;
@@ -38,17 +37,14 @@ import hudson.slaves.NodeProperty;
 import hudson.slaves.NodePropertyDescriptor;
 import hudson.util.FormValidation;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import jenkins.model.Jenkins;
 import jenkins.model.NodeListener;
 import net.sf.json.JSONObject;
-import org.acegisecurity.acls.sid.PrincipalSid;
-import org.acegisecurity.acls.sid.Sid;
 import org.jenkinsci.plugins.matrixauth.inheritance.InheritGlobalStrategy;
 import org.jenkinsci.plugins.matrixauth.inheritance.InheritanceStrategy;
 import org.kohsuke.accmod.Restricted;
@@ -61,11 +57,12 @@ import org.kohsuke.stapler.StaplerRequest2;
 public class AuthorizationMatrixNodeProperty extends NodeProperty<Node>
         implements AuthorizationProperty<NodeProperty<?>> {
 
-    private final transient SidACL acl = new AclImpl();
+    private final transient SidACL acl = new ContainerACL(this);
 
-    private final Map<Permission, Set<PermissionEntry>> grantedPermissions = new HashMap<>();
-
-    private final Set<String> groupSids = new HashSet<>();
+    /**
+     * The permissions granted, and the groups recorded, by this container.
+     */
+    private transient volatile GrantTable grantTable = GrantTable.EMPTY;
 
     /**
      * @deprecated unused, use {@link #setInheritanceStrategy(InheritanceStrategy)} instead.
@@ -80,24 +77,34 @@ public class AuthorizationMatrixNodeProperty extends NodeProperty<Node>
     public AuthorizationMatrixNodeProperty() {}
 
     public AuthorizationMatrixNodeProperty(Map<Permission, Set<PermissionEntry>> grantedPermissions) {
-        // do a deep copy to be safe
-        for (Map.Entry<Permission, Set<PermissionEntry>> e : grantedPermissions.entrySet())
-            this.grantedPermissions.put(e.getKey(), new HashSet<>(e.getValue()));
+        this.grantTable = GrantTable.intern(GrantTable.of(grantedPermissions));
     }
 
     @Override
     public Set<String> getGroups() {
-        return groupSids;
+        return grantTable.getGroups();
     }
 
     @Override
     public void recordGroup(String sid) {
-        this.groupSids.add(sid);
+        updateGrantTable(table -> table.withGroup(sid));
     }
 
     @Override
     public Map<Permission, Set<PermissionEntry>> getGrantedPermissionEntries() {
-        return grantedPermissions;
+        return grantTable.getGrants();
+    }
+
+    @Override
+    @Restricted(NoExternalUse.class)
+    public GrantTable getGrantTable() {
+        return grantTable;
+    }
+
+    @Override
+    @Restricted(NoExternalUse.class)
+    public synchronized void updateGrantTable(UnaryOperator<GrantTable> update) {
+        grantTable = update.apply(grantTable);
     }
 
     @Override
@@ -113,16 +120,6 @@ public class AuthorizationMatrixNodeProperty extends NodeProperty<Node>
         return inheritanceStrategy;
     }
 
-    private final class AclImpl extends SidACL {
-        @CheckForNull
-        protected Boolean hasPermission(Sid sid, Permission p) {
-            if (AuthorizationMatrixNodeProperty.this.hasPermission(toString(sid), p, sid instanceof PrincipalSid)) {
-                return true;
-            }
-            return null;
-        }
-    }
-
     public SidACL getACL() {
         return acl;
     }
@@ -35,6 +35,7 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 import jenkins.model.Jenkins;
 import org.jenkinsci.Symbol;
@@ -54,6 +55,29 @@ public interface AuthorizationProperty<T extends Describable<T>> extends Authori
 
     InheritanceStrategy getInheritanceStrategy();
 
+    /**
+     * Whether this property can defer parsing its permissions, see {@link #setPendingGrants(PendingGrants)}.
+     */
+    @Restricted(NoExternalUse.class)
+    default boolean supportsPendingGrants() {
+        return false;
+    }
+
+    /**
+     * Whether this property has permission assignments that have not been parsed yet.
+     */
+    @Restricted(NoExternalUse.class)
+    default boolean hasPendingGrants() {
+        return false;
+    }
+
+    /**
+     * Internal only: Set permission assignments to be parsed when {@link #getGrantTable()} is first called.
+     * Does nothing unless {@link #supportsPendingGrants()} returns {@code true}.
+     */
+    @Restricted(NoExternalUse.class)
+    default void setPendingGrants(PendingGrants pending) {}
+
     /**
      * Sets the flag to block inheritance.
      *
@@ -98,9 +122,13 @@ public interface AuthorizationProperty<T extends Describable<T>> extends Authori
      */
     @Restricted(DoNotUse.class)
     default void setEntries(List<DslEntry> entries) {
-        for (DslEntry entry : entries) {
-            entry.addPermission(this);
-        }
+        updateGrantTable(table -> {
+            final GrantTable.Builder builder = new GrantTable.Builder(table);
+            for (DslEntry entry : entries) {
+                entry.grant(builder::add);
+            }
+            return GrantTable.intern(builder.build());
+        });
     }
 
     /**
@@ -190,14 +218,17 @@ public interface AuthorizationProperty<T extends Describable<T>> extends Authori
             return this.permissions.size() - that.permissions.size();
         }
 
-        public abstract void addPermission(AuthorizationProperty authorizationProperty);
+        public void addPermission(AuthorizationProperty authorizationProperty) {
+            grant(authorizationProperty::add);
+        }
+
+        /**
+         * Passes the permissions assigned by this entry to the specified consumer.
+         */
+        abstract void grant(BiConsumer<Permission, PermissionEntry> grant);
 
         protected static Permission findPermission(String value) {
-            final Permission permission = Permission.fromId(value);
-            if (permission != null) {
-                return permission;
-            }
-            return PermissionFinder.findPermission(value);
+            return PermissionFinder.resolve(value);
         }
     }
 
@@ -212,10 +243,9 @@ public interface AuthorizationProperty<T extends Describable<T>> extends Authori
         }
 
         @Override
-        public void addPermission(AuthorizationProperty authorizationProperty) {
+        void grant(BiConsumer<Permission, PermissionEntry> grant) {
             getPermissions()
-                    .forEach(permission ->
-                            authorizationProperty.add(findPermission(permission), PermissionEntry.user(getName())));
+                    .forEach(permission -> grant.accept(findPermission(permission), PermissionEntry.user(getName())));
         }
 
         @Extension
@@ -234,10 +264,9 @@ public interface AuthorizationProperty<T extends Describable<T>> extends Authori
         }
 
         @Override
-        public void addPermission(AuthorizationProperty authorizationProperty) {
+        void grant(BiConsumer<Permission, PermissionEntry> grant) {
             getPermissions()
-                    .forEach(permission ->
-                            authorizationProperty.add(findPermission(permission), PermissionEntry.group(getName())));
+                    .forEach(permission -> grant.accept(findPermission(permission), PermissionEntry.group(getName())));
         }
 
         @Extension
@@ -257,9 +286,9 @@ public interface AuthorizationProperty<T extends Describable<T>> extends Authori
         }
 
         @Override
-        public void addPermission(AuthorizationProperty authorizationProperty) {
+        void grant(BiConsumer<Permission, PermissionEntry> grant) {
             getPermissions()
-                    .forEach(permission -> authorizationProperty.add(
+                    .forEach(permission -> grant.accept(
                             findPermission(permission), new PermissionEntry(AuthorizationType.EITHER, getName())));
         }
 
@@ -58,6 +58,8 @@ public interface AuthorizationPropertyDescriptor<T extends AuthorizationProperty
         T property = create();
 
         Map<String, Object> data = formData.getJSONObject("data");
+        final AuthorizationContainer<?> container = property; // T has a raw bound, so use a typed reference
+        final GrantTable.Builder builder = new GrantTable.Builder(container.getGrantTable());
 
         property.setInheritanceStrategy(
                 req.bindJSON(InheritanceStrategy.class, formData.getJSONObject("inheritanceStrategy")));
@@ -87,11 +89,12 @@ public interface AuthorizationPropertyDescriptor<T extends AuthorizationProperty
                                 "Silently skip unknown permission \"{0}\" for sid:\"{1}\", type: {2}",
                                 new Object[] {e.getKey(), entry.getSid(), entry.getType()});
                     } else {
-                        property.add(p, entry);
+                        builder.add(p, entry);
                     }
                 }
             }
         }
+        container.updateGrantTable(table -> GrantTable.intern(builder.build()));
         return property;
     }
 
@@ -0,0 +1,131 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 Matrix Authorization Strategy Plugin developers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.matrixauth;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.security.ACL;
+import hudson.security.Permission;
+import hudson.security.SidACL;
+import java.util.List;
+import java.util.Map;
+import org.acegisecurity.acls.sid.PrincipalSid;
+import org.acegisecurity.acls.sid.Sid;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.springframework.security.core.Authentication;
+
+/**
+ * The ACL of an {@link AuthorizationContainer}, granting exactly the permissions granted by the container itself.
+ * Permission checks for an {@link Authentication} check its {@link AuthoritySet} at once.
+ * <p>
+ * Also holds the effective ACL and the {@link EffectiveGrants} most recently computed for the container, see
+ * {@link org.jenkinsci.plugins.matrixauth.inheritance.InheritanceStrategy#getEffectiveACL}.
+ */
+@Restricted(NoExternalUse.class)
+public final class ContainerACL extends SidACL {
+    private final AuthorizationContainer<?> container;
+
+    private volatile Map.Entry<List<Object>, EffectiveGrants> effectiveGrants;
+
+    private volatile ACL effectiveACL;
+
+    public ContainerACL(AuthorizationContainer<?> container) {
+        this.container = container;
+    }
+
+    public AuthorizationContainer<?> getContainer() {
+        return container;
+    }
+
+    @Override
+    public boolean hasPermission2(@NonNull Authentication a, @NonNull Permission permission) {
+        if (a.equals(SYSTEM2)) {
+            return true;
+        }
+        final PermissionIndex index = container.getPermissionIndex();
+        return RequestMemo.hasPermission(index, a, permission, () -> {
+            final AuthoritySet authorities = AuthoritySet.of(a);
+            return DecisionCache.hasPermission(
+                    index, authorities, permission, () -> index.hasPermission(authorities, permission));
+        });
+    }
+
+    @Override
+    @CheckForNull
+    protected Boolean hasPermission(Sid p, Permission permission) {
+        if (container.hasPermission(toString(p), permission, p instanceof PrincipalSid)) {
+            return true;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the effective grants previously stored for the specified inputs, if any.
+     *
+     * @param inputs everything the effective grants were computed from
+     */
+    @CheckForNull
+    public EffectiveGrants getEffectiveGrants(List<Object> inputs) {
+        final Map.Entry<List<Object>, EffectiveGrants> entry = effectiveGrants;
+        if (entry != null && entry.getKey().equals(inputs)) {
+            return entry.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Stores the effective grants computed from the specified inputs.
+     */
+    public void setEffectiveGrants(List<Object> inputs, EffectiveGrants grants) {
+        effectiveGrants = Map.entry(inputs, grants);
+    }
+
+    /**
+     * Returns this ACL as {@link EffectiveGrants}, for use as the parent or root of other effective grants.
+     */
+    public EffectiveGrants toEffectiveGrants() {
+        final PermissionIndex index = container.getPermissionIndex();
+        final List<Object> inputs = List.of(index);
+        EffectiveGrants grants = getEffectiveGrants(inputs);
+        if (grants == null) {
+            grants = EffectiveGrants.of(index);
+            setEffectiveGrants(inputs, grants);
+        }
+        return grants;
+    }
+
+    /**
+     * Returns the effective ACL previously stored by
+     * {@link org.jenkinsci.plugins.matrixauth.inheritance.InheritanceStrategy#getEffectiveACL}, if any.
+     */
+    @CheckForNull
+    public ACL getEffectiveACL() {
+        return effectiveACL;
+    }
+
+    public void setEffectiveACL(ACL effectiveACL) {
+        this.effectiveACL = effectiveACL;
+    }
+}
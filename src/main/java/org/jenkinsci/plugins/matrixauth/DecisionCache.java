@@ -0,0 +1,230 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 Matrix Authorization Strategy Plugin developers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.matrixauth;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.Extension;
+import hudson.model.PeriodicWork;
+import hudson.security.Permission;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Bounded cache of permission check results.
+ * <p>
+ * Results are keyed by what was checked ({@link PermissionIndex} or {@link EffectiveGrants}), the
+ * {@link AuthoritySet} of the user, and the permission. As all of these are immutable, and a change to a permission
+ * matrix results in new objects being checked, cached results never need to be invalidated.
+ * <p>
+ * The cache is split into stripes, each with its own lock and least recently used eviction.
+ * It is disabled by default and can be enabled using the system property
+ * {@code org.jenkinsci.plugins.matrixauth.DecisionCache.enabled}.
+ * While enabled, its size and statistics are logged every few minutes at level {@code FINE}.
+ */
+@Restricted(NoExternalUse.class)
+public final class DecisionCache {
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ boolean ENABLED =
+            SystemProperties.getBoolean(DecisionCache.class.getName() + ".enabled");
+
+    private static final int MAXIMUM_SIZE =
+            SystemProperties.getInteger(DecisionCache.class.getName() + ".maximumSize", 100_000);
+
+    private static final int STRIPES = 16;
+
+    private static final Logger LOGGER = Logger.getLogger(DecisionCache.class.getName());
+
+    private static final DecisionCache INSTANCE = new DecisionCache(MAXIMUM_SIZE);
+
+    private final Stripe[] stripes = new Stripe[STRIPES];
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private DecisionCache(int maximumSize) {
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Stripe(Math.max(1, maximumSize / STRIPES), evictions);
+        }
+    }
+
+    public static DecisionCache get() {
+        return INSTANCE;
+    }
+
+    /**
+     * Returns the cached result for the specified check, or computes it if there is none or the cache is disabled.
+     *
+     * @param subject what is checked, must be immutable
+     * @param authorities the user
+     * @param permission the permission
+     * @param check computes the result
+     */
+    public static boolean hasPermission(
+            Object subject, AuthoritySet authorities, Permission permission, BooleanSupplier check) {
+        if (!ENABLED || !PermissionGraph.isCurrent(permission)) {
+            // cached decisions may predate enabling or disabling the permission
+            return check.getAsBoolean();
+        }
+        return INSTANCE.lookup(new Key(subject, authorities, permission), check);
+    }
+
+    private boolean lookup(Key key, BooleanSupplier check) {
+        final Stripe stripe = stripes[(key.hash ^ (key.hash >>> 16)) & (STRIPES - 1)];
+        final Boolean cached;
+        synchronized (stripe) {
+            cached = stripe.get(key);
+        }
+        if (cached != null) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        // do not hold the lock while checking, concurrent misses just compute the same result
+        final boolean result = check.getAsBoolean();
+        synchronized (stripe) {
+            stripe.put(key, result);
+        }
+        return result;
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Removes all cached results and resets statistics.
+     */
+    public void clear() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.clear();
+            }
+        }
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    @Override
+    public String toString() {
+        return "DecisionCache[enabled=" + ENABLED + ", size=" + size() + ", hits=" + getHits() + ", misses="
+                + getMisses() + ", evictions=" + getEvictions() + "]";
+    }
+
+    /**
+     * Logs the size and statistics of the cache, to help choose its maximum size.
+     */
+    @Extension
+    public static final class StatisticsLogger extends PeriodicWork {
+        @Override
+        public long getRecurrencePeriod() {
+            return 5 * MIN;
+        }
+
+        @Override
+        protected void doRun() {
+            if (ENABLED && LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.log(Level.FINE, INSTANCE.toString());
+            }
+        }
+    }
+
+    private static final class Stripe extends LinkedHashMap<Key, Boolean> {
+        private final int capacity;
+        private final LongAdder evictions;
+
+        Stripe(int capacity, LongAdder evictions) {
+            super(16, 0.75f, true);
+            this.capacity = capacity;
+            this.evictions = evictions;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Boolean> eldest) {
+            if (size() > capacity) {
+                evictions.increment();
+                return true;
+            }
+            return false;
+        }
+    }
+
+    private static final class Key {
+        private final Object subject;
+        private final AuthoritySet authorities;
+        private final Permission permission;
+        private final int hash;
+
+        Key(Object subject, AuthoritySet authorities, Permission permission) {
+            this.subject = subject;
+            this.authorities = authorities;
+            this.permission = permission;
+            this.hash = 31 * (31 * System.identityHashCode(subject) + authorities.hashCode())
+                    + System.identityHashCode(permission);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key that = (Key) o;
+            return subject == that.subject && permission == that.permission && authorities.equals(that.authorities);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 Matrix Authorization Strategy Plugin developers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.matrixauth;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.model.Item;
+import hudson.security.ACL;
+import hudson.security.Permission;
+import hudson.security.SidACL;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.acegisecurity.acls.sid.PrincipalSid;
+import org.acegisecurity.acls.sid.Sid;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Materialized permissions of an item, combining its own grants with those of its parent and the root ACL according to
+ * its {@link org.jenkinsci.plugins.matrixauth.inheritance.InheritanceStrategy}.
+ * <p>
+ * Instead of recursively evaluating the ACLs of every ancestor, permissions are checked against a flat list of
+ * {@link PermissionIndex}es: A {@link Clause} grants a permission if any of its indexes does, and is evaluated like
+ * any other matrix ACL. Most permissions are granted if a single clause grants them. {@link Item#READ} and
+ * {@link Item#DISCOVER} may additionally need to be granted on the parent, so they are granted only if every one of
+ * a list of clauses grants them.
+ */
+@Restricted(NoExternalUse.class)
+public final class EffectiveGrants extends ACL {
+    private final Clause general;
+    private final List<Clause> read;
+
+    /**
+     * @param general the clause used to check most permissions
+     * @param read the clauses that all need to grant {@link Item#READ} or {@link Item#DISCOVER}
+     */
+    public EffectiveGrants(@NonNull Clause general, @NonNull List<Clause> read) {
+        this.general = general;
+        this.read = Collections.unmodifiableList(new ArrayList<>(read));
+    }
+
+    /**
+     * Returns effective grants that grant exactly what the specified index grants.
+     */
+    public static EffectiveGrants of(PermissionIndex index) {
+        return of(Clause.of(index));
+    }
+
+    /**
+     * Returns effective grants that grant exactly what the specified clause grants, including {@link Item#READ}.
+     */
+    public static EffectiveGrants of(Clause clause) {
+        return new EffectiveGrants(clause, List.of(clause));
+    }
+
+    public Clause getGeneral() {
+        return general;
+    }
+
+    public List<Clause> getRead() {
+        return read;
+    }
+
+    @Override
+    public boolean hasPermission2(@NonNull Authentication a, @NonNull Permission permission) {
+        if (a.equals(ACL.SYSTEM2)) {
+            return true;
+        }
+        return RequestMemo.hasPermission(this, a, permission, () -> {
+            final AuthoritySet authorities = AuthoritySet.of(a);
+            return DecisionCache.hasPermission(
+                    this, authorities, permission, () -> hasPermission(authorities, permission));
+        });
+    }
+
+    private boolean hasPermission(AuthoritySet authorities, Permission permission) {
+        if (Item.READ.equals(permission) || Item.DISCOVER.equals(permission)) {
+            for (Clause clause : read) {
+                if (!clause.hasPermission(authorities, permission)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return general.hasPermission(authorities, permission);
+    }
+
+    /**
+     * Grants the permissions granted by any of its indexes.
+     */
+    public static final class Clause extends SidACL {
+        private final List<PermissionIndex> indexes;
+
+        private Clause(List<PermissionIndex> indexes) {
+            this.indexes = indexes;
+        }
+
+        public static Clause of(PermissionIndex... indexes) {
+            return new Clause(List.of()).or(indexes);
+        }
+
+        /**
+         * Returns a clause that additionally grants the permissions granted by the specified indexes.
+         */
+        public Clause or(PermissionIndex... indexes) {
+            final List<PermissionIndex> result = new ArrayList<>(this.indexes);
+            for (PermissionIndex index : indexes) {
+                // indexes are shared by the effective grants of all descendants, avoid checking them more than once
+                if (result.stream().noneMatch(existing -> existing == index)) {
+                    result.add(index);
+                }
+            }
+            return new Clause(Collections.unmodifiableList(result));
+        }
+
+        @Override
+        public boolean hasPermission2(@NonNull Authentication a, @NonNull Permission permission) {
+            if (a.equals(SYSTEM2)) {
+                return true;
+            }
+            return hasPermission(AuthoritySet.of(a), permission);
+        }
+
+        /**
+         * Checks whether any of the indexes grants the specified permission to any of the specified authorities.
+         */
+        public boolean hasPermission(AuthoritySet authorities, Permission permission) {
+            for (PermissionIndex index : indexes) {
+                if (index.hasPermission(authorities, permission)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        @CheckForNull
+        protected Boolean hasPermission(Sid p, Permission permission) {
+            final String sid = toString(p);
+            final boolean principal = p instanceof PrincipalSid;
+            for (PermissionIndex index : indexes) {
+                if (index.hasPermission(sid, permission, principal)) {
+                    return true;
+                }
+            }
+            return null;
+        }
+    }
+}
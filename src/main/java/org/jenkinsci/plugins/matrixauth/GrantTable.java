@@ -0,0 +1,364 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 Matrix Authorization Strategy Plugin developers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.matrixauth;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+import hudson.security.Permission;
+import hudson.security.SecurityRealm;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import jenkins.model.IdStrategy;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Immutable snapshot of the permissions granted by an {@link AuthorizationContainer} and the (possible) group sids
+ * recorded for it.
+ * <p>
+ * Containers publish a new snapshot whenever their permissions change, so readers never need to lock and never observe
+ * a partially updated map. Caches of data derived from a container's permissions key on the identity of its snapshot
+ * (or, equivalently, its {@link #getGeneration() generation}): a different snapshot may have different content.
+ * <p>
+ * Many items usually share a few distinct matrices, e.g. all branch projects of a multibranch project. Snapshots
+ * created when loading or constructing a container are therefore {@link #intern(GrantTable) interned}, so identical
+ * matrices share one instance and one compiled {@link PermissionIndex}.
+ */
+@Restricted(NoExternalUse.class)
+public final class GrantTable {
+    private static final AtomicLong GENERATIONS = new AtomicLong();
+
+    private static final Interner<GrantTable> INTERNER = Interners.newWeakInterner();
+
+    public static final GrantTable EMPTY =
+            INTERNER.intern(new GrantTable(Collections.emptyMap(), Collections.emptySet(), 0));
+
+    private final Map<Permission, Set<PermissionEntry>> grants;
+    private final Set<String> groups;
+    private final int ambiguousEntries;
+    private final long generation;
+
+    private volatile PermissionIndex index;
+
+    /**
+     * Cached result of {@link #getSerializedForm()}.
+     */
+    private volatile SerializedForm<List<String>> serializedForm;
+
+    /**
+     * Cached result of {@link #getCompactSerializedForm()}.
+     */
+    private volatile SerializedForm<Map<PermissionEntry, String>> compactSerializedForm;
+
+    /**
+     * Cached content hash, see {@link #hashCode()}.
+     */
+    private volatile int hash;
+
+    private GrantTable(Map<Permission, Set<PermissionEntry>> grants, Set<String> groups, int ambiguousEntries) {
+        this.grants = grants;
+        this.groups = groups;
+        this.ambiguousEntries = ambiguousEntries;
+        this.generation = GENERATIONS.incrementAndGet();
+    }
+
+    /**
+     * Creates a snapshot containing the specified permission grants.
+     */
+    public static GrantTable of(Map<Permission, ? extends Collection<PermissionEntry>> grants) {
+        final Builder builder = new Builder(EMPTY);
+        grants.forEach((permission, entries) -> entries.forEach(entry -> builder.add(permission, entry)));
+        return builder.build();
+    }
+
+    /**
+     * Returns the canonical snapshot equal to the specified one.
+     * Snapshots are only weakly referenced by the pool, so unused ones can still be collected.
+     */
+    public static GrantTable intern(GrantTable table) {
+        return INTERNER.intern(table);
+    }
+
+    /**
+     * Returns a snapshot that additionally grants the specified permission to the specified entry.
+     * If the entry is not a {@link AuthorizationType#USER}, its sid is also recorded as a group.
+     */
+    public GrantTable with(Permission permission, PermissionEntry entry) {
+        final Set<PermissionEntry> entries = grants.get(permission);
+        if (entries != null && entries.contains(entry)) {
+            return this;
+        }
+        return new Builder(this).add(permission, entry).build();
+    }
+
+    /**
+     * Returns a snapshot that additionally records the specified sid as a (possible) group.
+     */
+    public GrantTable withGroup(String sid) {
+        if (groups.contains(sid)) {
+            return this;
+        }
+        return new Builder(this).addGroup(sid).build();
+    }
+
+    /**
+     * The granted permissions. Neither the map nor its values can be modified.
+     */
+    public Map<Permission, Set<PermissionEntry>> getGrants() {
+        return grants;
+    }
+
+    /**
+     * The recorded (possible) group sids. Cannot be modified.
+     */
+    public Set<String> getGroups() {
+        return groups;
+    }
+
+    /**
+     * The number of grants to {@link AuthorizationType#EITHER} entries, counted while the snapshot was built.
+     */
+    public int getAmbiguousEntries() {
+        return ambiguousEntries;
+    }
+
+    /**
+     * Identifies this snapshot instance. Generations are not ordered in any meaningful way: as snapshots are
+     * {@link #intern(GrantTable) interned}, a container changing back to previous permissions, or a different
+     * container with identical permissions, may use a snapshot with an older generation. Only compare generations
+     * for equality.
+     */
+    public long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Returns the {@link PermissionIndex} for this snapshot, compiling it if necessary.
+     */
+    public PermissionIndex getIndex() {
+        PermissionIndex index = this.index;
+        if (index == null || !index.isCurrent()) {
+            // compiling twice in a race is harmless, the result is the same
+            index = PermissionIndex.compile(grants);
+            this.index = index;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the lines persisted for this snapshot, each of the form {@code [TYPE:]permission:sid}.
+     * For readability, they are ordered by permission ID, then by entry type and sid as defined by
+     * {@link AuthorizationContainer.PermissionEntryComparator}.
+     * <p>
+     * The result is computed once per snapshot (and {@link #intern(GrantTable) shared} by identical matrices), so
+     * repeatedly saving an unchanged container neither sorts nor concatenates anything. It is only recomputed if the
+     * security realm's ID strategies, which determine the order of sids, change.
+     */
+    public List<String> getSerializedForm() {
+        final SecurityRealm securityRealm = Jenkins.get().getSecurityRealm();
+        SerializedForm<List<String>> form = this.serializedForm;
+        if (form == null || !form.isCurrent(securityRealm)) {
+            form = new SerializedForm<>(
+                    securityRealm, serialize(new AuthorizationContainer.PermissionEntryComparator()));
+            this.serializedForm = form;
+        }
+        return form.value;
+    }
+
+    /**
+     * Returns the compact persisted form of this snapshot: For each entry, the IDs of the permissions granted to it,
+     * separated by {@link #COMPACT_SEPARATOR}. Entries are ordered like in {@link #getSerializedForm()}, permission IDs
+     * alphabetically. Cached like {@link #getSerializedForm()}.
+     */
+    public Map<PermissionEntry, String> getCompactSerializedForm() {
+        final SecurityRealm securityRealm = Jenkins.get().getSecurityRealm();
+        SerializedForm<Map<PermissionEntry, String>> form = this.compactSerializedForm;
+        if (form == null || !form.isCurrent(securityRealm)) {
+            form = new SerializedForm<>(
+                    securityRealm, serializeCompact(new AuthorizationContainer.PermissionEntryComparator()));
+            this.compactSerializedForm = form;
+        }
+        return form.value;
+    }
+
+    /**
+     * Separates permission IDs in {@link #getCompactSerializedForm()}.
+     */
+    public static final char COMPACT_SEPARATOR = ',';
+
+    private Permission[] sortedPermissions() {
+        final Permission[] permissions = grants.keySet().toArray(new Permission[0]);
+        Arrays.sort(permissions, Permission.ID_COMPARATOR);
+        return permissions;
+    }
+
+    private List<String> serialize(Comparator<PermissionEntry> comparator) {
+        final List<String> lines = new ArrayList<>();
+        for (Permission permission : sortedPermissions()) {
+            final String id = permission.getId();
+            final PermissionEntry[] entries = grants.get(permission).toArray(new PermissionEntry[0]);
+            Arrays.sort(entries, comparator);
+            PermissionEntry previous = null;
+            for (PermissionEntry entry : entries) {
+                // Like the TreeSet this replaces, skip entries the ID strategies consider duplicates
+                if (previous == null || comparator.compare(previous, entry) != 0) {
+                    lines.add(entry.getType().toPrefix() + id + ':' + entry.getSid());
+                }
+                previous = entry;
+            }
+        }
+        return Collections.unmodifiableList(lines);
+    }
+
+    private Map<PermissionEntry, String> serializeCompact(Comparator<PermissionEntry> comparator) {
+        final SortedMap<PermissionEntry, List<String>> ids = new TreeMap<>(comparator);
+        for (Permission permission : sortedPermissions()) {
+            final String id = permission.getId();
+            for (PermissionEntry entry : grants.get(permission)) {
+                final List<String> list = ids.computeIfAbsent(entry, unused -> new ArrayList<>());
+                // the ID strategies may consider different entries equal, only list the permission once
+                if (list.isEmpty() || !list.get(list.size() - 1).equals(id)) {
+                    list.add(id);
+                }
+            }
+        }
+        final Map<PermissionEntry, String> result = new LinkedHashMap<>();
+        ids.forEach((entry, list) -> result.put(entry, String.join(String.valueOf(COMPACT_SEPARATOR), list)));
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * A serialized form, with the ID strategies that determined the order of its sids.
+     */
+    private static final class SerializedForm<V> {
+        private final IdStrategy userIdStrategy;
+        private final IdStrategy groupIdStrategy;
+        private final V value;
+
+        private SerializedForm(SecurityRealm securityRealm, V value) {
+            this.userIdStrategy = securityRealm.getUserIdStrategy();
+            this.groupIdStrategy = securityRealm.getGroupIdStrategy();
+            this.value = value;
+        }
+
+        private boolean isCurrent(SecurityRealm securityRealm) {
+            return userIdStrategy.equals(securityRealm.getUserIdStrategy())
+                    && groupIdStrategy.equals(securityRealm.getGroupIdStrategy());
+        }
+    }
+
+    /**
+     * Snapshots are equal if they grant the same permissions to the same entries and record the same groups,
+     * regardless of their generation.
+     */
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        GrantTable that = (GrantTable) o;
+        return hashCode() == that.hashCode() && grants.equals(that.grants) && groups.equals(that.groups);
+    }
+
+    /**
+     * Content hash of this snapshot. Unlike {@link Permission#hashCode()}, it is based on permission IDs, so it does
+     * not change across restarts.
+     */
+    @Override
+    public int hashCode() {
+        int h = hash;
+        if (h == 0) {
+            for (Map.Entry<Permission, Set<PermissionEntry>> entry : grants.entrySet()) {
+                h += entry.getKey().getId().hashCode() ^ entry.getValue().hashCode();
+            }
+            h = 31 * h + groups.hashCode();
+            hash = h;
+        }
+        return h;
+    }
+
+    /**
+     * Collects many additions and creates a single new snapshot from them.
+     * A builder must not be used anymore after {@link #build()} was called.
+     */
+    public static final class Builder {
+        private final Map<Permission, Set<PermissionEntry>> grants = new HashMap<>();
+        private final Set<String> groups;
+        private int ambiguousEntries;
+
+        /**
+         * Sets of entries that were copied from the base snapshot and can be modified.
+         */
+        private final Set<Permission> copied = new HashSet<>();
+
+        public Builder(GrantTable base) {
+            grants.putAll(base.grants);
+            groups = new HashSet<>(base.groups);
+            ambiguousEntries = base.ambiguousEntries;
+        }
+
+        public Builder add(Permission permission, PermissionEntry entry) {
+            if (permission == null) {
+                throw new IllegalArgumentException("Permission cannot be null for: " + entry);
+            }
+            if (copied.add(permission)) {
+                final Set<PermissionEntry> entries = grants.get(permission);
+                grants.put(permission, entries == null ? new HashSet<>() : new HashSet<>(entries));
+            }
+            if (grants.get(permission).add(PermissionEntry.intern(entry))
+                    && entry.getType() == AuthorizationType.EITHER) {
+                ambiguousEntries++;
+            }
+            if (entry.getType() != AuthorizationType.USER) {
+                groups.add(entry.getSid());
+            }
+            return this;
+        }
+
+        public Builder addGroup(String sid) {
+            groups.add(sid);
+            return this;
+        }
+
+        public GrantTable build() {
+            final Map<Permission, Set<PermissionEntry>> result = new HashMap<>();
+            grants.forEach((permission, entries) -> result.put(
+                    permission, copied.contains(permission) ? Collections.unmodifiableSet(entries) : entries));
+            return new GrantTable(
+                    Collections.unmodifiableMap(result), Collections.unmodifiableSet(groups), ambiguousEntries);
+        }
+    }
+}
@@ -0,0 +1,302 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 Matrix Authorization Strategy Plugin developers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.matrixauth;
+
+import com.cloudbees.hudson.plugins.folder.AbstractFolder;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.ExtensionList;
+import hudson.XmlFile;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Node;
+import hudson.model.Saveable;
+import hudson.model.listeners.ItemListener;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.ACL;
+import hudson.security.ACLContext;
+import hudson.security.SecurityRealm;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import jenkins.model.IdStrategy;
+import jenkins.model.Jenkins;
+import jenkins.model.NodeListener;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Groups recorded by the permission matrices of all jobs, folders, and agents, as needed by
+ * {@link hudson.security.ProjectMatrixAuthorizationStrategy#getGroups()}.
+ * <p>
+ * The groups of each item or agent are counted once per group, and updated whenever a permission matrix changes, is
+ * added or removed, or its owner is renamed, moved, or deleted. Only the first call to {@link #getGroups()} needs to
+ * look at all items.
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class GroupRegistry {
+    /**
+     * Groups by full name of the owning job or folder. Guarded by {@code this}.
+     */
+    private final Map<String, Set<String>> groupsByItem = new HashMap<>();
+
+    /**
+     * Groups by name of the owning agent. Guarded by {@code this}.
+     */
+    private final Map<String, Set<String>> groupsByNode = new HashMap<>();
+
+    /**
+     * Number of owners recording each group. Guarded by {@code this}.
+     */
+    private final Map<String, Integer> references = new HashMap<>();
+
+    /**
+     * Whether all items and agents have been recorded. Only set while holding {@link #initializing}.
+     */
+    private volatile boolean initialized;
+
+    /**
+     * Held while recording all items and agents, so concurrent first calls to {@link #getGroups()} do not all scan.
+     * Not {@code this}, as lazily loaded containers may need to parse their permissions while being recorded.
+     */
+    private final Object initializing = new Object();
+
+    /**
+     * Sorted view of the keys of {@link #references}, or {@code null} if they changed since it was created.
+     * The key is the list of ID strategies the view is sorted by.
+     */
+    private volatile Map.Entry<List<IdStrategy>, SortedSet<String>> sorted;
+
+    public static GroupRegistry get() {
+        return ExtensionList.lookupSingleton(GroupRegistry.class);
+    }
+
+    /**
+     * Returns all groups recorded by job, folder, and agent permission matrices.
+     * The result is sorted by {@link AuthorizationContainer.IdStrategyComparator} and must not be modified.
+     */
+    @NonNull
+    public SortedSet<String> getGroups() {
+        if (!initialized) {
+            recordAll();
+        }
+        final SecurityRealm securityRealm = Jenkins.get().getSecurityRealm();
+        final List<IdStrategy> strategies =
+                List.of(securityRealm.getUserIdStrategy(), securityRealm.getGroupIdStrategy());
+        Map.Entry<List<IdStrategy>, SortedSet<String>> sorted = this.sorted;
+        if (sorted == null || !sorted.getKey().equals(strategies)) {
+            synchronized (this) {
+                final SortedSet<String> groups = new TreeSet<>(new AuthorizationContainer.IdStrategyComparator());
+                groups.addAll(references.keySet());
+                sorted = Map.entry(strategies, Collections.unmodifiableSortedSet(groups));
+                this.sorted = sorted;
+            }
+        }
+        return sorted.getValue();
+    }
+
+    private void recordAll() {
+        synchronized (initializing) {
+            if (initialized) {
+                return;
+            }
+            try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+                for (Job<?, ?> job : Jenkins.get().getAllItems(Job.class)) {
+                    record(job);
+                }
+                if (Jenkins.get().getPlugin("cloudbees-folder") != null) { // optional dependency
+                    for (AbstractFolder<?> folder : Jenkins.get().getAllItems(AbstractFolder.class)) {
+                        record(folder);
+                    }
+                }
+                for (Node node : Jenkins.get().getNodes()) {
+                    record(node);
+                }
+            }
+            initialized = true;
+        }
+    }
+
+    /**
+     * Records the groups of the permission matrix currently configured on the specified item.
+     * {@link AuthorizationProperty#hasPendingGrants() Pending} permission assignments are not parsed: the
+     * {@link MatrixSnapshot} is used if possible, otherwise the item is recorded once they are parsed.
+     */
+    public static void record(@NonNull Item item) {
+        final MatrixSnapshot.Entry entry = MatrixSnapshot.lookup(item);
+        if (entry != null) {
+            get().updateItem(item.getFullName(), entry.getGroups());
+            return;
+        }
+        final AuthorizationProperty<?> property = PropertyTracker.getProperty(item);
+        get().updateItem(
+                item.getFullName(), property != null && property.hasPendingGrants() ? Set.of() : groupsOf(property));
+    }
+
+    /**
+     * Records the groups of the permission matrix currently configured on the specified agent.
+     */
+    public static void record(@NonNull Node node) {
+        get().updateNode(node.getNodeName(), groupsOf(node.getNodeProperty(AuthorizationMatrixNodeProperty.class)));
+    }
+
+    /**
+     * Obtained before locking the registry, as lazily loaded containers may need to parse their permissions first.
+     */
+    private static Set<String> groupsOf(@CheckForNull AuthorizationContainer<?> container) {
+        return container == null ? Set.of() : container.getGroups();
+    }
+
+    private synchronized void updateItem(String fullName, Set<String> groups) {
+        update(groupsByItem, fullName, groups);
+    }
+
+    private synchronized void updateNode(String nodeName, Set<String> groups) {
+        update(groupsByNode, nodeName, groups);
+    }
+
+    private void update(Map<String, Set<String>> groupsByOwner, String owner, Set<String> groups) {
+        final Set<String> previous = groups.isEmpty() ? groupsByOwner.remove(owner) : groupsByOwner.put(owner, groups);
+        if (previous == groups) {
+            return;
+        }
+        if (previous != null) {
+            previous.forEach(this::release);
+        }
+        groups.forEach(this::retain);
+    }
+
+    /**
+     * Removes the specified item and, if it is a folder, the items inside it.
+     */
+    private synchronized void removeItems(String fullName) {
+        final String prefix = fullName + "/";
+        for (String owner : List.copyOf(groupsByItem.keySet())) {
+            if (owner.equals(fullName) || owner.startsWith(prefix)) {
+                updateItem(owner, Set.of());
+            }
+        }
+    }
+
+    private synchronized void removeNode(String nodeName) {
+        updateNode(nodeName, Set.of());
+    }
+
+    /**
+     * Removes items and agents that no longer exist, e.g. after reloading configuration from disk.
+     * Items and agents that still exist have been recorded again when their permission matrix was loaded.
+     */
+    private synchronized void removeMissing() {
+        final Jenkins jenkins = Jenkins.get();
+        for (String owner : List.copyOf(groupsByItem.keySet())) {
+            if (jenkins.getItemByFullName(owner) == null) {
+                updateItem(owner, Set.of());
+            }
+        }
+        for (String owner : List.copyOf(groupsByNode.keySet())) {
+            if (jenkins.getNode(owner) == null) {
+                updateNode(owner, Set.of());
+            }
+        }
+    }
+
+    private void retain(String group) {
+        if (references.merge(group, 1, Integer::sum) == 1) {
+            sorted = null;
+        }
+    }
+
+    private void release(String group) {
+        if (references.computeIfPresent(group, (k, count) -> count == 1 ? null : count - 1) == null) {
+            sorted = null;
+        }
+    }
+
+    @Extension
+    public static final class ItemListenerImpl extends ItemListener {
+        @Override
+        public void onUpdated(Item item) {
+            record(item);
+        }
+
+        @Override
+        public void onLocationChanged(Item item, String oldFullName, String newFullName) {
+            // also called for each item inside a moved or renamed folder
+            get().removeItems(oldFullName);
+            record(item);
+        }
+
+        @Override
+        public void onDeleted(Item item) {
+            get().removeItems(item.getFullName());
+        }
+
+        @Override
+        public void onLoaded() {
+            try (ACLContext ignored = ACL.as2(ACL.SYSTEM2)) {
+                get().removeMissing();
+            }
+        }
+    }
+
+    /**
+     * Permission matrices may have been added or removed.
+     */
+    @Extension
+    public static final class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Item) {
+                record((Item) o);
+            } else if (o instanceof Node) {
+                record((Node) o);
+            }
+        }
+    }
+
+    @Extension
+    public static final class NodeListenerImpl extends NodeListener {
+        @Override
+        protected void onCreated(@NonNull Node node) {
+            record(node);
+        }
+
+        @Override
+        protected void onUpdated(@NonNull Node oldOne, @NonNull Node newOne) {
+            get().removeNode(oldOne.getNodeName());
+            record(newOne);
+        }
+
+        @Override
+        protected void onDeleted(@NonNull Node node) {
+            get().removeNode(node.getNodeName());
+        }
+    }
+}
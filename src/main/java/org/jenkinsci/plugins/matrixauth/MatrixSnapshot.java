@@ -0,0 +1,420 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 Matrix Authorization Strategy Plugin developers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.matrixauth;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.init.Terminator;
+import hudson.model.Item;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Persists what {@link GroupRegistry} and {@link AmbiguityMonitor} need to know about job and folder matrices across
+ * restarts, so that matrices {@link AbstractAuthorizationPropertyConverter#LAZY_LOADING loaded lazily} do not need
+ * to be parsed at startup.
+ * <p>
+ * The snapshot is written to {@code $JENKINS_HOME/matrix-auth-snapshot-<generation>.bin} on shutdown and
+ * memory-mapped on startup. Every write uses a new generation, as a mapped file cannot be replaced on all platforms;
+ * older generations are deleted once they are no longer mapped.
+ * Entries are sorted by item full name and located by binary search, so only entries actually looked up are decoded.
+ * An entry is only used while the item's {@code config.xml} has the timestamp and size it had when the entry was
+ * recorded; otherwise the matrix is parsed as usual.
+ * <p>
+ * File format: magic number, version, entry count, the offset of each entry, and then the entries. Each entry consists
+ * of the item full name, the path of its {@code config.xml} relative to {@code $JENKINS_HOME}, that file's timestamp
+ * and size, whether the matrix has ambiguous entries, and the recorded groups. Strings are written as their length in
+ * bytes followed by their UTF-8 encoding. A snapshot that turns out to be corrupt is discarded.
+ */
+@Restricted(NoExternalUse.class)
+public final class MatrixSnapshot {
+    private static final Logger LOGGER = Logger.getLogger(MatrixSnapshot.class.getName());
+
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ boolean ENABLED =
+            SystemProperties.getBoolean(MatrixSnapshot.class.getName() + ".enabled");
+
+    private static final String FILE_PREFIX = "matrix-auth-snapshot-";
+    private static final String FILE_SUFFIX = ".bin";
+    private static final int MAGIC = 0x4d415458; // MATX
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+
+    /**
+     * The snapshot read on startup, or {@code null} if there is none or it is unusable.
+     */
+    private static volatile ByteBuffer mapped;
+
+    /**
+     * The generation of the most recent snapshot file, or {@code 0} if there is none.
+     */
+    private static long generation;
+
+    /**
+     * Entries recorded since startup. They take precedence over {@link #mapped}.
+     */
+    private static final Map<String, Entry> RECORDED = new ConcurrentHashMap<>();
+
+    private MatrixSnapshot() {}
+
+    /**
+     * What is known about the matrix of an item.
+     */
+    public static final class Entry {
+        private final String path;
+        private final long lastModified;
+        private final long length;
+        private final boolean ambiguous;
+        private final Set<String> groups;
+
+        private Entry(String path, long lastModified, long length, boolean ambiguous, Set<String> groups) {
+            this.path = path;
+            this.lastModified = lastModified;
+            this.length = length;
+            this.ambiguous = ambiguous;
+            this.groups = groups;
+        }
+
+        /**
+         * Whether the matrix has {@link AuthorizationType#EITHER} entries.
+         */
+        public boolean isAmbiguous() {
+            return ambiguous;
+        }
+
+        /**
+         * The (possible) group sids recorded by the matrix. Cannot be modified.
+         */
+        public Set<String> getGroups() {
+            return groups;
+        }
+
+        private boolean isCurrent(File root) {
+            final File file = new File(root, path);
+            return file.lastModified() == lastModified && file.length() == length;
+        }
+    }
+
+    /**
+     * Returns the snapshot entry for the specified item if its matrix has not been parsed yet, and its configuration
+     * file is unchanged since the entry was recorded.
+     */
+    @CheckForNull
+    public static Entry lookup(@NonNull Item item) {
+        if (!ENABLED) {
+            return null;
+        }
+        final AuthorizationProperty<?> property = PropertyTracker.getProperty(item);
+        if (property == null || !property.hasPendingGrants()) {
+            return null;
+        }
+        Entry entry = RECORDED.get(item.getFullName());
+        if (entry == null) {
+            entry = find(item.getFullName());
+        }
+        if (entry == null || !entry.isCurrent(Jenkins.get().getRootDir())) {
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Records the matrix of the specified item. Must only be called when the matrix is what is stored in the item's
+     * configuration file, i.e. when it was just loaded or saved.
+     */
+    public static void record(@NonNull Item item, @CheckForNull AuthorizationContainer<?> container) {
+        if (!ENABLED) {
+            return;
+        }
+        final File root = Jenkins.get().getRootDir();
+        final File file = new File(item.getRootDir(), "config.xml");
+        RECORDED.put(
+                item.getFullName(),
+                new Entry(
+                        root.toPath().relativize(file.toPath()).toString(),
+                        file.lastModified(),
+                        file.length(),
+                        AmbiguityMonitor.hasAmbiguousEntries(container),
+                        container == null ? Set.of() : container.getGroups()));
+    }
+
+    /**
+     * The most recent snapshot file, or {@code null} if there is none.
+     */
+    @CheckForNull
+    static synchronized File getFile() {
+        return generation == 0 ? null : getFile(generation);
+    }
+
+    private static File getFile(long generation) {
+        return new File(Jenkins.get().getRootDir(), FILE_PREFIX + generation + FILE_SUFFIX);
+    }
+
+    /**
+     * Returns the generations of all snapshot files, sorted from oldest to newest.
+     */
+    private static List<Long> listGenerations() {
+        final List<Long> generations = new ArrayList<>();
+        final String[] names = Jenkins.get().getRootDir().list();
+        if (names != null) {
+            for (String name : names) {
+                if (name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX)) {
+                    try {
+                        generations.add(Long.parseLong(
+                                name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length())));
+                    } catch (NumberFormatException ex) {
+                        // not ours
+                    }
+                }
+            }
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    /**
+     * Deletes snapshot files older than the current generation. This fails on some platforms while they are still
+     * mapped, in which case they are deleted later.
+     */
+    private static void deleteOlderGenerations() {
+        for (long older : listGenerations()) {
+            if (older < generation) {
+                try {
+                    Files.deleteIfExists(getFile(older).toPath());
+                } catch (IOException ex) {
+                    LOGGER.log(Level.FINE, "Failed to delete " + getFile(older), ex);
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps the snapshot written by the previous run, replacing anything recorded before.
+     */
+    @Initializer(after = InitMilestone.PLUGINS_STARTED, before = InitMilestone.JOB_LOADED)
+    public static synchronized void load() {
+        if (!ENABLED) {
+            return;
+        }
+        RECORDED.clear();
+        mapped = null;
+        final List<Long> generations = listGenerations();
+        if (generations.isEmpty()) {
+            generation = 0;
+            return;
+        }
+        generation = generations.get(generations.size() - 1);
+        mapped = map(getFile(generation));
+        deleteOlderGenerations();
+    }
+
+    /**
+     * Maps the specified snapshot file, returning {@code null} if it cannot be used.
+     */
+    @CheckForNull
+    private static ByteBuffer map(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            // the mapping stays valid after the channel is closed
+            final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                LOGGER.log(Level.INFO, () -> "Ignoring " + file + " written in an unsupported format");
+                return null;
+            }
+            final int count = buffer.getInt(8);
+            if (count < 0 || HEADER_SIZE + 4L * count > buffer.limit()) {
+                LOGGER.log(Level.WARNING, () -> "Ignoring corrupt " + file);
+                return null;
+            }
+            return buffer;
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Failed to read " + file, ex);
+            return null;
+        }
+    }
+
+    @CheckForNull
+    private static Entry find(String fullName) {
+        final ByteBuffer buffer = mapped;
+        if (buffer == null) {
+            return null;
+        }
+        try {
+            int low = 0;
+            int high = buffer.getInt(8) - 1;
+            while (low <= high) {
+                final int mid = (low + high) >>> 1;
+                final ByteBuffer entry = entryAt(buffer, mid);
+                final int c = readString(entry).compareTo(fullName);
+                if (c < 0) {
+                    low = mid + 1;
+                } else if (c > 0) {
+                    high = mid - 1;
+                } else {
+                    return readEntry(entry);
+                }
+            }
+            return null;
+        } catch (RuntimeException ex) {
+            LOGGER.log(Level.WARNING, "Ignoring corrupt " + getFile(), ex);
+            mapped = null;
+            return null;
+        }
+    }
+
+    private static ByteBuffer entryAt(ByteBuffer buffer, int index) {
+        final ByteBuffer entry = buffer.duplicate();
+        entry.position(buffer.getInt(HEADER_SIZE + 4 * index));
+        return entry;
+    }
+
+    private static Entry readEntry(ByteBuffer entry) {
+        final String path = readString(entry);
+        final long lastModified = entry.getLong();
+        final long length = entry.getLong();
+        final boolean ambiguous = entry.get() != 0;
+        final int count = entry.getInt();
+        // every group takes at least four bytes
+        if (count < 0 || count > entry.remaining() / 4) {
+            throw new IllegalStateException("Invalid group count: " + count);
+        }
+        final List<String> groups = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            groups.add(readString(entry));
+        }
+        return new Entry(path, lastModified, length, ambiguous, Set.copyOf(groups));
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        final int length = buffer.getInt();
+        if (length < 0 || length > buffer.remaining()) {
+            throw new IllegalStateException("Invalid string length: " + length);
+        }
+        final byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Writes the entries that are still current, from both the previous snapshot and this session.
+     */
+    @Terminator
+    public static synchronized void save() {
+        if (!ENABLED) {
+            return;
+        }
+        final File root = Jenkins.get().getRootDir();
+        final SortedMap<String, Entry> entries = new TreeMap<>();
+        final ByteBuffer buffer = mapped;
+        if (buffer != null) {
+            try {
+                for (int i = 0; i < buffer.getInt(8); i++) {
+                    final ByteBuffer entry = entryAt(buffer, i);
+                    entries.put(readString(entry), readEntry(entry));
+                }
+            } catch (RuntimeException ex) {
+                LOGGER.log(Level.WARNING, "Ignoring corrupt " + getFile(), ex);
+                mapped = null;
+                entries.clear();
+            }
+        }
+        entries.putAll(RECORDED);
+        entries.values().removeIf(entry -> !entry.isCurrent(root));
+
+        // never replace the mapped file, as that fails on some platforms
+        final long next = generation + 1;
+        final Path file = getFile(next).toPath();
+        final Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            write(entries, tmp);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException ex) {
+            LOGGER.log(Level.WARNING, "Failed to write " + file, ex);
+            return;
+        }
+        generation = next;
+        mapped = map(file.toFile());
+        deleteOlderGenerations();
+    }
+
+    private static void write(SortedMap<String, Entry> entries, Path file) throws IOException {
+        final int[] offsets = new int[entries.size()];
+        final ByteArrayOutputStream body = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(body);
+        int i = 0;
+        for (Map.Entry<String, Entry> e : entries.entrySet()) {
+            final Entry entry = e.getValue();
+            offsets[i++] = HEADER_SIZE + 4 * offsets.length + body.size();
+            writeString(out, e.getKey());
+            writeString(out, entry.path);
+            out.writeLong(entry.lastModified);
+            out.writeLong(entry.length);
+            out.writeBoolean(entry.ambiguous);
+            out.writeInt(entry.groups.size());
+            for (String group : entry.groups) {
+                writeString(out, group);
+            }
+        }
+        try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            os.writeInt(MAGIC);
+            os.writeInt(VERSION);
+            os.writeInt(offsets.length);
+            for (int offset : offsets) {
+                os.writeInt(offset);
+            }
+            body.writeTo(os);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 Matrix Authorization Strategy Plugin developers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.matrixauth;
+
+import com.thoughtworks.xstream.io.HierarchicalStreamReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Permission assignments read from disk that have not been parsed yet, see
+ * {@link AbstractAuthorizationPropertyConverter#LAZY_LOADING}.
+ * <p>
+ * Only the raw element values are kept; resolving permissions, checking their scope, and recording groups happens in
+ * {@link #parse(AuthorizationContainer)}.
+ */
+@Restricted(NoExternalUse.class)
+public final class PendingGrants {
+    private static final Logger LOGGER = Logger.getLogger(PendingGrants.class.getName());
+
+    /**
+     * Triples of type, sid, and value. The type is {@code null} for {@code permission} elements, whose value contains
+     * everything, and never {@code null} for {@code grant} elements.
+     */
+    private final String[] values;
+
+    private PendingGrants(String[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Reads the remaining {@code permission} and {@code grant} elements.
+     */
+    /* package */ static PendingGrants read(HierarchicalStreamReader reader) {
+        final List<String> values = new ArrayList<>();
+        while (reader.hasMoreChildren()) {
+            reader.moveDown();
+            if ("grant".equals(reader.getNodeName())) {
+                final String type = reader.getAttribute("type");
+                values.add(type == null ? "" : type); // rejected when parsed
+                values.add(reader.getAttribute("sid"));
+            } else {
+                values.add(null);
+                values.add(null);
+            }
+            values.add(reader.getValue());
+            reader.moveUp();
+        }
+        return new PendingGrants(values.toArray(new String[0]));
+    }
+
+    /**
+     * Parses the assignments for the specified container.
+     * Unlike when parsing during deserialization, invalid assignments can only be logged.
+     */
+    public GrantTable parse(AuthorizationContainer<?> container) {
+        final GrantTable.Builder builder = new GrantTable.Builder(GrantTable.EMPTY);
+        final Consumer<IllegalArgumentException> onError =
+                ex -> LOGGER.log(Level.WARNING, "Skipping a non-existent permission in " + container, ex);
+        for (int i = 0; i < values.length; i += 3) {
+            if (values[i] == null) {
+                AbstractAuthorizationContainerConverter.parseLine(container, values[i + 2], builder, onError);
+            } else {
+                AbstractAuthorizationContainerConverter.parseGrant(
+                        container, values[i], values[i + 1], values[i + 2], builder, onError);
+            }
+        }
+        return GrantTable.intern(builder.build());
+    }
+}
@@ -0,0 +1,118 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 Matrix Authorization Strategy Plugin developers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.matrixauth;
+
+import hudson.Extension;
+import hudson.model.Item;
+import hudson.model.RootAction;
+import hudson.security.AuthorizationStrategy;
+import hudson.security.Permission;
+import hudson.security.ProjectMatrixAuthorizationStrategy;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import jenkins.model.Jenkins;
+import net.sf.json.JSONArray;
+import net.sf.json.JSONObject;
+import org.jenkinsci.plugins.matrixauth.integrations.PermissionFinder;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.HttpResponse;
+import org.kohsuke.stapler.HttpResponses;
+import org.kohsuke.stapler.QueryParameter;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.kohsuke.stapler.verb.GET;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Checks a permission on many items at once for the current user, e.g.
+ * {@code GET /matrixAuthPermissions/check?permission=Job/Build&item=folder/job&item=other}.
+ * The permission can be specified by its ID or in the form shown in the UI.
+ * The response contains one decision per {@code item} parameter, in the same order.
+ * Items that do not exist or that the current user cannot see are reported as not granted.
+ *
+ * @see ProjectMatrixAuthorizationStrategy#hasPermission2(Authentication, Permission, java.util.Collection)
+ */
+@Extension
+@Restricted(NoExternalUse.class)
+public class PermissionCheckAction implements RootAction {
+    @Override
+    public String getIconFileName() {
+        return null;
+    }
+
+    @Override
+    public String getDisplayName() {
+        return null;
+    }
+
+    @Override
+    public String getUrlName() {
+        return "matrixAuthPermissions";
+    }
+
+    @GET
+    public HttpResponse doCheck(@QueryParameter(required = true) String permission, StaplerRequest2 req) {
+        final Permission p = PermissionFinder.resolve(permission);
+        if (p == null) {
+            return HttpResponses.errorJSON("No such permission: " + permission);
+        }
+        final String[] names = req.getParameterValues("item");
+
+        final List<Item> items = new ArrayList<>();
+        final List<Integer> positions = new ArrayList<>();
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                // only finds items the current user can see
+                final Item item = Jenkins.get().getItemByFullName(names[i], Item.class);
+                if (item != null) {
+                    items.add(item);
+                    positions.add(i);
+                }
+            }
+        }
+
+        final Authentication a = Jenkins.getAuthentication2();
+        final AuthorizationStrategy strategy = Jenkins.get().getAuthorizationStrategy();
+        final BitSet granted;
+        if (strategy instanceof ProjectMatrixAuthorizationStrategy) {
+            granted = ((ProjectMatrixAuthorizationStrategy) strategy).hasPermission2(a, p, items);
+        } else {
+            granted = new BitSet(items.size());
+            for (int i = 0; i < items.size(); i++) {
+                granted.set(i, items.get(i).hasPermission2(a, p));
+            }
+        }
+
+        final boolean[] decisions = new boolean[names == null ? 0 : names.length];
+        for (int i = 0; i < items.size(); i++) {
+            decisions[positions.get(i)] = granted.get(i);
+        }
+        final JSONArray result = new JSONArray();
+        for (boolean decision : decisions) {
+            result.add(decision);
+        }
+        return HttpResponses.okJSON(new JSONObject().element("permission", p.getId()).element("granted", result));
+    }
+}
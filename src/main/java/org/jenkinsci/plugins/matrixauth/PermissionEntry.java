@@ -23,6 +23,8 @@
  */
 package org.jenkinsci.plugins.matrixauth;
 
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import edu.umd.cs.findbugs.annotations.NonNull;
 import java.util.Objects;
@@ -35,9 +37,17 @@ import org.kohsuke.accmod.restrictions.NoExternalUse;
  * @since 3.0
  */
 public class PermissionEntry implements Comparable<PermissionEntry> {
+    private static final Interner<PermissionEntry> INTERNER = Interners.newWeakInterner();
+
     private final AuthorizationType type;
     private final String sid;
 
+    /**
+     * Cached hash code, computed lazily like {@link String#hashCode()} as instances may be created without running the
+     * constructor (e.g. by XStream).
+     */
+    private transient int hash;
+
     public PermissionEntry(@NonNull AuthorizationType type, @NonNull String sid) {
         this.type = type;
         this.sid = sid;
@@ -82,15 +92,37 @@ public class PermissionEntry implements Comparable<PermissionEntry> {
             return null;
         }
 
-        return new PermissionEntry(type, sid);
+        return of(type, sid);
     }
 
     public static PermissionEntry user(String sid) {
-        return new PermissionEntry(AuthorizationType.USER, sid);
+        return of(AuthorizationType.USER, sid);
     }
 
     public static PermissionEntry group(String sid) {
-        return new PermissionEntry(AuthorizationType.GROUP, sid);
+        return of(AuthorizationType.GROUP, sid);
+    }
+
+    /**
+     * Returns the canonical instance of a permission entry with the specified type and sid.
+     * Permission matrices typically refer to the same few users and groups many times, so this avoids keeping
+     * duplicate instances around.
+     */
+    @Restricted(NoExternalUse.class)
+    public static PermissionEntry of(@NonNull AuthorizationType type, @NonNull String sid) {
+        return intern(new PermissionEntry(type, sid));
+    }
+
+    /**
+     * Returns the canonical instance equal to the specified permission entry.
+     */
+    @Restricted(NoExternalUse.class)
+    public static PermissionEntry intern(@NonNull PermissionEntry entry) {
+        if (entry.getClass() != PermissionEntry.class) {
+            // subclasses may have their own semantics, do not mix them into the pool
+            return entry;
+        }
+        return INTERNER.intern(entry);
     }
 
     @Override
@@ -103,7 +135,12 @@ public class PermissionEntry implements Comparable<PermissionEntry> {
 
     @Override
     public int hashCode() {
-        return Objects.hash(type, sid);
+        int h = hash;
+        if (h == 0) {
+            h = 31 * type.ordinal() + sid.hashCode();
+            hash = h;
+        }
+        return h;
     }
 
     @Override
@@ -0,0 +1,295 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 Matrix Authorization Strategy Plugin developers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.matrixauth;
+
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.init.InitMilestone;
+import hudson.init.Initializer;
+import hudson.security.Permission;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Immutable snapshot of all known {@link Permission}s.
+ * Every permission is assigned an ordinal, and the {@link Permission#impliedBy} implications are precomputed, so that
+ * a permission grant can be represented as a bit set over permission ordinals.
+ * The chain of permissions implying each permission, and the root of that chain, are stored as well, so that neither
+ * permission checks nor the configuration UI need to follow {@link Permission#impliedBy} links.
+ * <p>
+ * A new snapshot is built when additional permissions are registered (e.g. by dynamically loaded plugins), and when
+ * permissions were enabled or disabled using {@link Permission#setEnabled(boolean)}. As there is no notification for
+ * the latter, it is checked at most once every {@link #VERIFY_INTERVAL_MILLIS} milliseconds, and whenever a permission
+ * check finds the checked permission or one implying it changed, see {@link #isEnabledCurrent(int)}. Permission checks
+ * therefore never rely on an outdated snapshot.
+ *
+ * @see PermissionIndex
+ */
+@Restricted(NoExternalUse.class)
+public final class PermissionGraph {
+    private static final Logger LOGGER = Logger.getLogger(PermissionGraph.class.getName());
+
+    /**
+     * How often to check whether permissions were enabled or disabled since the current snapshot was built.
+     */
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ long VERIFY_INTERVAL_MILLIS =
+            SystemProperties.getLong(PermissionGraph.class.getName() + ".verifyIntervalMillis", 1000L);
+
+    private static volatile PermissionGraph current;
+
+    private final List<Permission> permissions;
+    private final Map<Permission, Integer> ordinals;
+
+    /**
+     * For each ordinal, whether the permission was enabled when this snapshot was built.
+     */
+    private final boolean[] enabled;
+
+    /**
+     * For each ordinal, the ordinals of the permissions implying it, nearest first.
+     * Permissions unknown to this snapshot end the chain.
+     */
+    private final int[][] ancestors;
+
+    /**
+     * For each ordinal, the ordinal of the last permission in its {@link Permission#impliedBy} chain, or the
+     * permission itself if it is not implied by anything.
+     */
+    private final int[] roots;
+
+    /**
+     * When {@link #enabled} was last compared with the current state, see {@link System#nanoTime()}.
+     */
+    private volatile long verified = System.nanoTime();
+
+    /**
+     * Set when {@link #isEnabledCurrent(int)} found a difference, so that the next {@link #get()} does not wait for
+     * {@link #VERIFY_INTERVAL_MILLIS}.
+     */
+    private volatile boolean stale;
+
+    /**
+     * For each ordinal, the ordinals of all permissions granted when the permission is granted, i.e. the permission
+     * itself and everything it (transitively) implies. Empty for disabled permissions, as granting them has no effect.
+     */
+    private final BitSet[] implied;
+
+    private PermissionGraph(List<Permission> all) {
+        permissions = new ArrayList<>(all);
+        ordinals = new IdentityHashMap<>(permissions.size());
+        implied = new BitSet[permissions.size()];
+        enabled = new boolean[permissions.size()];
+        ancestors = new int[permissions.size()][];
+        roots = new int[permissions.size()];
+        for (int i = 0; i < implied.length; i++) {
+            ordinals.put(permissions.get(i), i);
+            implied[i] = new BitSet();
+            enabled[i] = permissions.get(i).getEnabled();
+        }
+        for (int i = 0; i < permissions.size(); i++) {
+            final List<Integer> chain = new ArrayList<>();
+            roots[i] = i;
+            for (Permission p = permissions.get(i).impliedBy; p != null; p = p.impliedBy) {
+                final Integer ordinal = ordinals.get(p);
+                if (ordinal == null) {
+                    break;
+                }
+                chain.add(ordinal);
+                roots[i] = ordinal;
+            }
+            ancestors[i] = chain.stream().mapToInt(Integer::intValue).toArray();
+
+            if (enabled[i]) {
+                implied[i].set(i);
+            }
+            for (int ancestor : ancestors[i]) {
+                if (enabled[ancestor]) {
+                    implied[ancestor].set(i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the current snapshot, building a new one if permissions were registered since the last one was built.
+     */
+    public static PermissionGraph get() {
+        PermissionGraph graph = current;
+        if (graph == null || graph.permissions.size() != Permission.getAll().size() || graph.isOutdated()) {
+            graph = rebuild();
+        }
+        return graph;
+    }
+
+    private static synchronized PermissionGraph rebuild() {
+        PermissionGraph graph = current;
+        List<Permission> all = Permission.getAll();
+        if (graph == null || graph.permissions.size() != all.size() || !graph.isEnabledCurrent()) {
+            graph = new PermissionGraph(all);
+            LOGGER.log(Level.FINE, "Built permission graph of {0} permissions", graph.size());
+            // indexes compiled against the previous graph are recompiled, see PermissionIndex#isCurrent()
+            current = graph;
+        } else {
+            // changed back in the meantime
+            graph.stale = false;
+        }
+        return graph;
+    }
+
+    /**
+     * Whether permissions may have been enabled or disabled since this snapshot was built.
+     * Returns {@code false} without checking if this was checked recently.
+     */
+    private boolean isOutdated() {
+        if (stale) {
+            return true;
+        }
+        final long now = System.nanoTime();
+        if (now - verified < TimeUnit.MILLISECONDS.toNanos(VERIFY_INTERVAL_MILLIS)) {
+            return false;
+        }
+        verified = now;
+        return !isEnabledCurrent();
+    }
+
+    private boolean isEnabledCurrent() {
+        for (int i = 0; i < enabled.length; i++) {
+            if (permissions.get(i).getEnabled() != enabled[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Whether the permission with the specified ordinal and the permissions implying it are still enabled or disabled
+     * as they were when this snapshot was built, i.e. whether {@link #implied(int)} is still accurate regarding the
+     * specified permission. If not, the next call to {@link #get()} builds a new snapshot.
+     */
+    /* package */ boolean isEnabledCurrent(int ordinal) {
+        boolean current = permissions.get(ordinal).getEnabled() == enabled[ordinal];
+        for (int ancestor : ancestors[ordinal]) {
+            current &= permissions.get(ancestor).getEnabled() == enabled[ancestor];
+        }
+        if (!current) {
+            stale = true;
+        }
+        return current;
+    }
+
+    /**
+     * Whether the current snapshot is still accurate regarding the specified permission, see
+     * {@link #isEnabledCurrent(int)}. Results of permission checks cached while it was may only be used if it still is.
+     */
+    public static boolean isCurrent(Permission permission) {
+        final PermissionGraph graph = current;
+        if (graph == null) {
+            return false;
+        }
+        final int ordinal = graph.ordinal(permission);
+        return ordinal < 0 || graph.isEnabledCurrent(ordinal);
+    }
+
+    /**
+     * Permissions may be enabled or disabled during startup, so discard the snapshot once that is done.
+     */
+    @Initializer(after = InitMilestone.COMPLETED)
+    public static synchronized void reset() {
+        current = null;
+    }
+
+    /**
+     * The number of permissions in this snapshot.
+     */
+    public int size() {
+        return permissions.size();
+    }
+
+    /**
+     * Returns the ordinal of the specified permission in this snapshot, or {@code -1} if it is unknown.
+     */
+    public int ordinal(Permission permission) {
+        Integer ordinal = ordinals.get(permission);
+        return ordinal == null ? -1 : ordinal;
+    }
+
+    /**
+     * Returns the permission with the specified ordinal.
+     */
+    public Permission get(int ordinal) {
+        return permissions.get(ordinal);
+    }
+
+    /**
+     * Returns the permissions implying the specified permission, nearest first, like following
+     * {@link Permission#impliedBy} links. Unlike {@link #implied(int)}, this includes disabled permissions.
+     */
+    public List<Permission> getImpliedBy(Permission permission) {
+        final int ordinal = ordinal(permission);
+        final List<Permission> result = new ArrayList<>();
+        if (ordinal < 0) {
+            for (Permission p = permission.impliedBy; p != null; p = p.impliedBy) {
+                result.add(p);
+            }
+        } else {
+            for (int ancestor : ancestors[ordinal]) {
+                result.add(permissions.get(ancestor));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the last permission in the {@link Permission#impliedBy} chain of the specified permission, or the
+     * permission itself if it is not implied by anything.
+     */
+    public Permission getRoot(Permission permission) {
+        final int ordinal = ordinal(permission);
+        if (ordinal < 0) {
+            Permission root = permission;
+            while (root.impliedBy != null) {
+                root = root.impliedBy;
+            }
+            return root;
+        }
+        return permissions.get(roots[ordinal]);
+    }
+
+    /**
+     * Returns the ordinals of all permissions granted by granting the permission with the specified ordinal.
+     * The returned value must not be modified.
+     */
+    /* package */ BitSet implied(int ordinal) {
+        return implied[ordinal];
+    }
+}
@@ -0,0 +1,314 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 Matrix Authorization Strategy Plugin developers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.matrixauth;
+
+import hudson.security.Permission;
+import hudson.security.SecurityRealm;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import jenkins.model.IdStrategy;
+import jenkins.model.Jenkins;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Compiled, immutable form of {@link AuthorizationContainer#getGrantedPermissionEntries()} optimized for permission
+ * checks.
+ * <p>
+ * For every sid, a bit set over {@link PermissionGraph} ordinals is stored that already includes all permissions
+ * implied by the granted ones, so a permission check is a single hash lookup and a single bit test.
+ * Sids are indexed separately for checks of principals ({@link AuthorizationType#USER} and
+ * {@link AuthorizationType#EITHER} entries) and checks of groups ({@link AuthorizationType#GROUP} and
+ * {@link AuthorizationType#EITHER} entries).
+ * <p>
+ * Sids are stored under their {@link IdStrategy#keyFor(String)} key of the {@link SecurityRealm}'s user or group
+ * {@link IdStrategy}, so lookups respect e.g. case insensitivity without comparing against every granted sid.
+ * The index needs to be compiled again when the security realm's ID strategies change, see {@link #isCurrent()}.
+ * <p>
+ * Additionally, the sids granted each permission are stored, so that checking an {@link AuthoritySet} with many
+ * groups only needs to look at the smaller of the granted sids and the authorities.
+ * <p>
+ * If the checked permission or one implying it was enabled or disabled since the {@link PermissionGraph} was built,
+ * checks follow {@link Permission#impliedBy} links using the explicitly granted permissions instead, until the index is
+ * compiled again.
+ */
+@Restricted(NoExternalUse.class)
+public final class PermissionIndex {
+    private final PermissionGraph graph;
+    private final IdStrategy userIdStrategy;
+    private final IdStrategy groupIdStrategy;
+
+    /**
+     * Effective permissions of principals, keyed by {@link #userIdStrategy}.
+     */
+    private final Map<String, BitSet> principals = new HashMap<>();
+
+    /**
+     * Effective permissions of groups, keyed by {@link #groupIdStrategy}.
+     */
+    private final Map<String, BitSet> groups = new HashMap<>();
+
+    /**
+     * Principals granted each permission, by {@link PermissionGraph} ordinal. Inverse of {@link #principals}.
+     */
+    private final List<Set<String>> principalsByPermission;
+
+    /**
+     * Groups granted each permission, by {@link PermissionGraph} ordinal. Inverse of {@link #groups}.
+     */
+    private final List<Set<String>> groupsByPermission;
+
+    /**
+     * Explicitly granted permissions per entry type, keyed by {@link #userIdStrategy}.
+     * Also used for permission checks while {@link #graph} is outdated.
+     */
+    private final Map<AuthorizationType, Map<String, BitSet>> explicitByUserKey =
+            new EnumMap<>(AuthorizationType.class);
+
+    /**
+     * Explicitly granted permissions per entry type, keyed by {@link #groupIdStrategy}.
+     */
+    private final Map<AuthorizationType, Map<String, BitSet>> explicitByGroupKey =
+            new EnumMap<>(AuthorizationType.class);
+
+    /**
+     * Lazily computed result of {@link #getAdministrators()}.
+     */
+    private volatile PermissionIndex administrators;
+
+    private PermissionIndex(PermissionGraph graph, IdStrategy userIdStrategy, IdStrategy groupIdStrategy) {
+        this.graph = graph;
+        this.userIdStrategy = userIdStrategy;
+        this.groupIdStrategy = groupIdStrategy;
+        this.principalsByPermission = new ArrayList<>(Collections.nCopies(graph.size(), Set.of()));
+        this.groupsByPermission = new ArrayList<>(Collections.nCopies(graph.size(), Set.of()));
+        for (AuthorizationType type : AuthorizationType.values()) {
+            explicitByUserKey.put(type, new HashMap<>());
+            explicitByGroupKey.put(type, new HashMap<>());
+        }
+    }
+
+    /**
+     * Compiles the specified permission grants against the current {@link PermissionGraph} and the ID strategies of
+     * the current {@link SecurityRealm}.
+     */
+    public static PermissionIndex compile(Map<Permission, Set<PermissionEntry>> grants) {
+        final SecurityRealm securityRealm = Jenkins.get().getSecurityRealm();
+        final PermissionIndex index = new PermissionIndex(
+                PermissionGraph.get(), securityRealm.getUserIdStrategy(), securityRealm.getGroupIdStrategy());
+        grants.forEach(index::index);
+        return index;
+    }
+
+    private void index(Permission permission, Set<PermissionEntry> entries) {
+        final int ordinal = graph.ordinal(permission);
+        if (ordinal < 0) {
+            return;
+        }
+        final BitSet implied = graph.implied(ordinal);
+        if (implied.isEmpty()) {
+            // disabled permission, granting it has no effect
+            return;
+        }
+        for (PermissionEntry entry : entries) {
+            final String userKey = userIdStrategy.keyFor(entry.getSid());
+            final String groupKey = groupIdStrategy.keyFor(entry.getSid());
+            if (entry.isApplicable(true)) {
+                grant(principals, principalsByPermission, userKey, implied);
+            }
+            if (entry.isApplicable(false)) {
+                grant(groups, groupsByPermission, groupKey, implied);
+            }
+            explicitByUserKey
+                    .get(entry.getType())
+                    .computeIfAbsent(userKey, k -> new BitSet())
+                    .set(ordinal);
+            explicitByGroupKey
+                    .get(entry.getType())
+                    .computeIfAbsent(groupKey, k -> new BitSet())
+                    .set(ordinal);
+        }
+    }
+
+    private static void grant(
+            Map<String, BitSet> bySid, List<Set<String>> byPermission, String sid, BitSet implied) {
+        bySid.computeIfAbsent(sid, k -> new BitSet()).or(implied);
+        implied.stream().forEach(ordinal -> {
+            Set<String> sids = byPermission.get(ordinal);
+            if (sids.isEmpty()) {
+                sids = new HashSet<>();
+                byPermission.set(ordinal, sids);
+            }
+            sids.add(sid);
+        });
+    }
+
+    /**
+     * Whether this index was compiled against the current {@link PermissionGraph} and the current security realm's
+     * ID strategies. If not, it needs to be compiled again.
+     */
+    public boolean isCurrent() {
+        if (graph != PermissionGraph.get()) {
+            return false;
+        }
+        final SecurityRealm securityRealm = Jenkins.get().getSecurityRealm();
+        return Objects.equals(userIdStrategy, securityRealm.getUserIdStrategy())
+                && Objects.equals(groupIdStrategy, securityRealm.getGroupIdStrategy());
+    }
+
+    /**
+     * Checks whether the specified sid is granted the specified permission, directly or through implication.
+     *
+     * @param sid the sid
+     * @param p the permission
+     * @param principal whether the sid is a principal (user) or a group
+     */
+    public boolean hasPermission(String sid, Permission p, boolean principal) {
+        final int ordinal = graph.ordinal(p);
+        if (ordinal < 0 || sid == null) {
+            return false;
+        }
+        if (!graph.isEnabledCurrent(ordinal)) {
+            return hasExplicitlyImpliedPermission(sid, p, principal);
+        }
+        final BitSet granted =
+                principal ? principals.get(userIdStrategy.keyFor(sid)) : groups.get(groupIdStrategy.keyFor(sid));
+        return granted != null && granted.get(ordinal);
+    }
+
+    /**
+     * Checks whether any of the specified authorities is granted the specified permission, directly or through
+     * implication. This is equivalent to checking each principal and group with
+     * {@link #hasPermission(String, Permission, boolean)}.
+     */
+    public boolean hasPermission(AuthoritySet authorities, Permission p) {
+        final int ordinal = graph.ordinal(p);
+        if (ordinal < 0) {
+            return false;
+        }
+        if (!authorities.isKeyedBy(userIdStrategy, groupIdStrategy) || !graph.isEnabledCurrent(ordinal)) {
+            // the security realm changed since one of them was created, see #isCurrent(), or permissions were enabled
+            // or disabled since the graph was built
+            return authorities.getPrincipalNames().stream().anyMatch(sid -> hasPermission(sid, p, true))
+                    || authorities.getGroupNames().stream().anyMatch(sid -> hasPermission(sid, p, false));
+        }
+        return intersects(authorities.getPrincipals(), principalsByPermission.get(ordinal))
+                || intersects(authorities.getGroups(), groupsByPermission.get(ordinal));
+    }
+
+    /**
+     * Like {@link #hasPermission(String, Permission, boolean)}, but follows {@link Permission#impliedBy} links and
+     * checks the current {@link Permission#getEnabled()} state rather than relying on {@link #graph}.
+     */
+    private boolean hasExplicitlyImpliedPermission(String sid, Permission p, boolean principal) {
+        final String key = principal ? userIdStrategy.keyFor(sid) : groupIdStrategy.keyFor(sid);
+        final Map<AuthorizationType, Map<String, BitSet>> explicit = principal ? explicitByUserKey : explicitByGroupKey;
+        final BitSet byType =
+                explicit.get(principal ? AuthorizationType.USER : AuthorizationType.GROUP).get(key);
+        final BitSet byEither = explicit.get(AuthorizationType.EITHER).get(key);
+        for (Permission q = p; q != null; q = q.impliedBy) {
+            final int ordinal = graph.ordinal(q);
+            if (ordinal < 0 || !q.getEnabled()) {
+                continue;
+            }
+            if ((byType != null && byType.get(ordinal)) || (byEither != null && byEither.get(ordinal))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean intersects(Set<String> a, Set<String> b) {
+        if (a.size() > b.size()) {
+            return intersects(b, a);
+        }
+        for (String sid : a) {
+            if (b.contains(sid)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the specified permission is explicitly granted to an entry of the same type as the specified
+     * one, and whose sid is considered equal by either the user or the group ID strategy.
+     *
+     * @see AuthorizationContainer#hasExplicitPermission(PermissionEntry, Permission)
+     */
+    public boolean hasExplicitPermission(PermissionEntry entry, Permission p) {
+        final int ordinal = graph.ordinal(p);
+        if (ordinal < 0 || !p.getEnabled()) {
+            return false;
+        }
+        final BitSet byUserKey =
+                explicitByUserKey.get(entry.getType()).get(userIdStrategy.keyFor(entry.getSid()));
+        if (byUserKey != null && byUserKey.get(ordinal)) {
+            return true;
+        }
+        final BitSet byGroupKey =
+                explicitByGroupKey.get(entry.getType()).get(groupIdStrategy.keyFor(entry.getSid()));
+        return byGroupKey != null && byGroupKey.get(ordinal);
+    }
+
+    /**
+     * Returns an index that grants every permission implied by {@link Jenkins#ADMINISTER} to exactly those sids that
+     * are granted {@link Jenkins#ADMINISTER} in this index, and nothing else.
+     * This corresponds to the permissions {@link org.jenkinsci.plugins.matrixauth.inheritance.NonInheritingStrategy}
+     * grants based on the root ACL.
+     */
+    public PermissionIndex getAdministrators() {
+        PermissionIndex administrators = this.administrators;
+        if (administrators == null) {
+            administrators = new PermissionIndex(graph, userIdStrategy, groupIdStrategy);
+            final int ordinal = graph.ordinal(Jenkins.ADMINISTER);
+            if (ordinal >= 0) {
+                final BitSet implied = graph.implied(ordinal);
+                // for checks while the graph is outdated
+                final Map<String, BitSet> explicitPrincipals =
+                        administrators.explicitByUserKey.get(AuthorizationType.USER);
+                final Map<String, BitSet> explicitGroups =
+                        administrators.explicitByGroupKey.get(AuthorizationType.GROUP);
+                for (String sid : principalsByPermission.get(ordinal)) {
+                    grant(administrators.principals, administrators.principalsByPermission, sid, implied);
+                    explicitPrincipals.computeIfAbsent(sid, k -> new BitSet()).set(ordinal);
+                }
+                for (String sid : groupsByPermission.get(ordinal)) {
+                    grant(administrators.groups, administrators.groupsByPermission, sid, implied);
+                    explicitGroups.computeIfAbsent(sid, k -> new BitSet()).set(ordinal);
+                }
+            }
+            this.administrators = administrators;
+        }
+        return administrators;
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 Matrix Authorization Strategy Plugin developers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+
+package org.jenkinsci.plugins.matrixauth;
+
+import com.cloudbees.hudson.plugins.folder.AbstractFolder;
+import com.google.common.collect.MapMaker;
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.NonNull;
+import hudson.Extension;
+import hudson.XmlFile;
+import hudson.init.InitMilestone;
+import hudson.model.Item;
+import hudson.model.Job;
+import hudson.model.Saveable;
+import hudson.model.listeners.SaveableListener;
+import hudson.security.AuthorizationMatrixProperty;
+import java.util.AbstractMap;
+import java.util.Map;
+import java.util.Objects;
+import jenkins.model.Jenkins;
+import org.jenkinsci.plugins.matrixauth.inheritance.InheritanceStrategy;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+
+/**
+ * Tracks the permission matrix last attached to each job and folder.
+ * <p>
+ * Pipeline's {@code properties} step and Job DSL replace job and folder properties with new, usually identical,
+ * instances every time they run. Comparing the new matrix with the tracked one allows skipping the work needed when
+ * permissions actually change. The grant table of the previous matrix is reused, so its compiled
+ * {@link PermissionIndex} is shared too.
+ */
+@Restricted(NoExternalUse.class)
+public final class PropertyTracker {
+    /**
+     * Grant table and inheritance strategy by owning item.
+     * Values must not reference the item, or it would never be collected.
+     */
+    private static final Map<Object, Map.Entry<GrantTable, InheritanceStrategy>> ATTACHED =
+            new MapMaker().weakKeys().makeMap();
+
+    private PropertyTracker() {}
+
+    /**
+     * Records that the specified property was attached to the specified item.
+     *
+     * @return the grant table of the previously attached matrix if it is identical to the specified property, or
+     * {@code null} if permissions changed
+     */
+    @CheckForNull
+    public static GrantTable attach(@NonNull Item owner, @NonNull AuthorizationProperty<?> property) {
+        final Map.Entry<GrantTable, InheritanceStrategy> previous = ATTACHED.get(owner);
+        if (previous != null && isSame(previous, property)) {
+            return previous.getKey();
+        }
+        record(owner, property);
+        if (Jenkins.get().getInitLevel() != InitMilestone.COMPLETED) {
+            // loaded from disk during startup
+            MatrixSnapshot.record(owner, property);
+        }
+        return null;
+    }
+
+    /**
+     * Returns whether the specified property, or its absence, is what was last recorded for the specified item.
+     * Properties may be modified in place, so this also compares the content of the same instance.
+     */
+    public static boolean isCurrent(@NonNull Item owner, @CheckForNull AuthorizationProperty<?> property) {
+        final Map.Entry<GrantTable, InheritanceStrategy> previous = ATTACHED.get(owner);
+        if (previous == null || property == null) {
+            return previous == null && property == null;
+        }
+        return isSame(previous, property);
+    }
+
+    /**
+     * Forgets the matrix recorded for the specified item, e.g. because it was modified in place. Attaching any matrix
+     * to the item afterwards is considered a change.
+     */
+    public static void forget(@NonNull Item owner) {
+        ATTACHED.remove(owner);
+    }
+
+    /**
+     * Returns the matrix currently configured on the specified item, if any.
+     */
+    @CheckForNull
+    public static AuthorizationProperty<?> getProperty(@NonNull Item item) {
+        if (item instanceof Job) {
+            return ((Job<?, ?>) item).getProperty(AuthorizationMatrixProperty.class);
+        }
+        if (Jenkins.get().getPlugin("cloudbees-folder") != null) { // optional dependency
+            if (item instanceof AbstractFolder) {
+                return ((AbstractFolder<?>) item)
+                        .getProperties()
+                        .get(com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty.class);
+            }
+        }
+        return null;
+    }
+
+    private static boolean isSame(Map.Entry<GrantTable, InheritanceStrategy> entry, AuthorizationProperty<?> property) {
+        return entry.getKey().equals(property.getGrantTable())
+                && Objects.equals(entry.getValue(), property.getInheritanceStrategy());
+    }
+
+    private static void record(Item owner, @CheckForNull AuthorizationProperty<?> property) {
+        if (property == null) {
+            ATTACHED.remove(owner);
+        } else {
+            // Map.entry does not allow null values
+            ATTACHED.put(owner, new AbstractMap.SimpleImmutableEntry<>(
+                    property.getGrantTable(), property.getInheritanceStrategy()));
+        }
+    }
+
+    /**
+     * Properties may have been modified or removed, which is only noticed when their owner is saved.
+     * Runs after all other listeners, so they can use {@link #isCurrent(Item, AuthorizationProperty)} to determine
+     * whether the save changed permissions.
+     */
+    @Extension(ordinal = -1000)
+    public static final class SaveableListenerImpl extends SaveableListener {
+        @Override
+        public void onChange(Saveable o, XmlFile file) {
+            if (o instanceof Item) {
+                final Item item = (Item) o;
+                final AuthorizationProperty<?> property = getProperty(item);
+                if (!isCurrent(item, property)) {
+                    record(item, property);
+                }
+                MatrixSnapshot.record(item, property);
+            }
+        }
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 Matrix Authorization Strategy Plugin developers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.matrixauth;
+
+import edu.umd.cs.findbugs.annotations.CheckForNull;
+import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
+import hudson.security.Permission;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import jenkins.util.SystemProperties;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
+import org.kohsuke.stapler.Stapler;
+import org.kohsuke.stapler.StaplerRequest2;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Remembers the results of permission checks for the duration of the current HTTP request.
+ * Rendering a page or API response often checks the same permissions on the same items for the same user many
+ * times.
+ * <p>
+ * Like {@link DecisionCache}, results are keyed by the immutable {@link PermissionIndex} or {@link EffectiveGrants}
+ * checked, so changes to permissions during the request result in different keys rather than outdated results.
+ * The memo is stored as a request attribute and is only used by the thread handling the request.
+ * It is disabled by default and can be enabled using the system property
+ * {@code org.jenkinsci.plugins.matrixauth.RequestMemo.enabled}.
+ */
+@Restricted(NoExternalUse.class)
+public final class RequestMemo {
+    @SuppressFBWarnings(value = "MS_SHOULD_BE_FINAL", justification = "for script console")
+    public static /* not final */ boolean ENABLED =
+            SystemProperties.getBoolean(RequestMemo.class.getName() + ".enabled");
+
+    private static final String ATTRIBUTE = RequestMemo.class.getName();
+
+    /**
+     * Results keyed by the identities of the object checked, the authentication, and the permission.
+     */
+    private final Map<Key, Boolean> results = new HashMap<>();
+
+    private RequestMemo() {}
+
+    /**
+     * Returns the memo of the current request, or {@code null} if it is disabled or there is no current request.
+     */
+    @CheckForNull
+    public static RequestMemo current() {
+        if (!ENABLED) {
+            return null;
+        }
+        final StaplerRequest2 req = Stapler.getCurrentRequest2();
+        if (req == null) {
+            return null;
+        }
+        RequestMemo memo = (RequestMemo) req.getAttribute(ATTRIBUTE);
+        if (memo == null) {
+            memo = new RequestMemo();
+            req.setAttribute(ATTRIBUTE, memo);
+        }
+        return memo;
+    }
+
+    /**
+     * Returns the remembered result for the specified check in the current request, or computes it if there is none.
+     *
+     * @param subject what is checked, must be immutable
+     * @param a the authentication
+     * @param permission the permission
+     * @param check computes the result
+     */
+    public static boolean hasPermission(
+            Object subject, Authentication a, Permission permission, BooleanSupplier check) {
+        final RequestMemo memo = current();
+        if (memo == null || !PermissionGraph.isCurrent(permission)) {
+            return check.getAsBoolean();
+        }
+        final Key key = new Key(subject, a, permission);
+        final Boolean remembered = memo.results.get(key);
+        if (remembered != null) {
+            return remembered;
+        }
+        final boolean result = check.getAsBoolean();
+        memo.results.put(key, result);
+        return result;
+    }
+
+    public int size() {
+        return results.size();
+    }
+
+    private static final class Key {
+        private final Object subject;
+        private final Authentication a;
+        private final Permission permission;
+        private final int hash;
+
+        Key(Object subject, Authentication a, Permission permission) {
+            this.subject = subject;
+            this.a = a;
+            this.permission = permission;
+            this.hash = 31 * (31 * System.identityHashCode(subject) + System.identityHashCode(a))
+                    + System.identityHashCode(permission);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            final Key that = (Key) o;
+            return subject == that.subject && a == that.a && permission == that.permission;
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -29,7 +29,13 @@ import hudson.Extension;
 import hudson.model.Item;
 import hudson.security.ACL;
 import hudson.security.Permission;
+import java.util.ArrayList;
+import java.util.List;
 import org.jenkinsci.Symbol;
+import org.jenkinsci.plugins.matrixauth.EffectiveGrants;
+import org.jenkinsci.plugins.matrixauth.PermissionIndex;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.springframework.security.core.Authentication;
 
@@ -41,6 +47,16 @@ public class InheritGlobalStrategy extends InheritanceStrategy {
     @DataBoundConstructor
     public InheritGlobalStrategy() {}
 
+    @Override
+    public boolean equals(Object o) {
+        return o != null && getClass() == o.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().getName().hashCode();
+    }
+
     @Override
     protected boolean hasPermission(
             @NonNull Authentication a, @NonNull Permission permission, ACL child, @CheckForNull ACL parent, ACL root) {
@@ -70,6 +86,22 @@ public class InheritGlobalStrategy extends InheritanceStrategy {
         return child.hasPermission2(a, permission) || root.hasPermission2(a, permission);
     }
 
+    @Override
+    @Restricted(NoExternalUse.class)
+    protected EffectiveGrants combine(
+            @NonNull PermissionIndex child,
+            @CheckForNull EffectiveGrants parent,
+            @NonNull PermissionIndex root,
+            boolean parentReadRequired) {
+        final EffectiveGrants.Clause general = EffectiveGrants.Clause.of(child, root);
+        if (parentReadRequired && parent != null) {
+            final List<EffectiveGrants.Clause> read = new ArrayList<>(parent.getRead());
+            read.add(general);
+            return new EffectiveGrants(general, read);
+        }
+        return EffectiveGrants.of(general);
+    }
+
     @Symbol("inheritingGlobal")
     @Extension
     public static class DescriptorImpl extends InheritanceStrategyDescriptor {
@@ -30,7 +30,12 @@ import hudson.model.AbstractItem;
 import hudson.model.Item;
 import hudson.security.ACL;
 import hudson.security.Permission;
+import java.util.List;
 import org.jenkinsci.Symbol;
+import org.jenkinsci.plugins.matrixauth.EffectiveGrants;
+import org.jenkinsci.plugins.matrixauth.PermissionIndex;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.springframework.security.core.Authentication;
 
@@ -44,6 +49,16 @@ public class InheritParentStrategy extends InheritanceStrategy {
     @DataBoundConstructor
     public InheritParentStrategy() {}
 
+    @Override
+    public boolean equals(Object o) {
+        return o != null && getClass() == o.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().getName().hashCode();
+    }
+
     @Override
     protected boolean hasPermission(
             @NonNull Authentication a, @NonNull Permission permission, ACL child, @CheckForNull ACL parent, ACL root) {
@@ -73,6 +88,20 @@ public class InheritParentStrategy extends InheritanceStrategy {
         }
     }
 
+    @Override
+    @Restricted(NoExternalUse.class)
+    protected EffectiveGrants combine(
+            @NonNull PermissionIndex child,
+            @CheckForNull EffectiveGrants parent,
+            @NonNull PermissionIndex root,
+            boolean parentReadRequired) {
+        if (parent == null) {
+            return EffectiveGrants.of(EffectiveGrants.Clause.of(root, child));
+        }
+        final EffectiveGrants.Clause general = parent.getGeneral().or(child);
+        return new EffectiveGrants(general, parentReadRequired ? parent.getRead() : List.of(general));
+    }
+
     @Symbol("inheriting")
     @Extension(ordinal = 100)
     public static class DescriptorImpl extends InheritanceStrategyDescriptor {
@@ -32,8 +32,13 @@ import hudson.model.ItemGroup;
 import hudson.security.ACL;
 import hudson.security.AccessControlled;
 import hudson.security.Permission;
+import java.util.Arrays;
+import java.util.List;
 import jenkins.model.Jenkins;
 import jenkins.util.SystemProperties;
+import org.jenkinsci.plugins.matrixauth.ContainerACL;
+import org.jenkinsci.plugins.matrixauth.EffectiveGrants;
+import org.jenkinsci.plugins.matrixauth.PermissionIndex;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
 import org.springframework.security.core.Authentication;
@@ -65,6 +70,18 @@ public abstract class InheritanceStrategy extends AbstractDescribableImpl<Inheri
     }
 
     public ACL getEffectiveACL(final ACL acl, final AccessControlled subject) {
+        if (acl instanceof ContainerACL) {
+            final ContainerACL containerACL = (ContainerACL) acl;
+            final ACL cached = containerACL.getEffectiveACL();
+            if (cached instanceof EffectiveACL
+                    && ((EffectiveACL) cached).strategy == this
+                    && ((EffectiveACL) cached).subject == subject) {
+                return cached;
+            }
+            final EffectiveACL effectiveACL = new EffectiveACL(this, containerACL, subject);
+            containerACL.setEffectiveACL(effectiveACL);
+            return effectiveACL;
+        }
         return ACL.lambda2((a, p) -> hasPermission(
                 a,
                 p,
@@ -75,4 +92,109 @@ public abstract class InheritanceStrategy extends AbstractDescribableImpl<Inheri
 
     protected abstract boolean hasPermission(
             @NonNull Authentication a, @NonNull Permission permission, ACL child, @CheckForNull ACL parent, ACL root);
+
+    /**
+     * Materializes the permissions granted by {@link #hasPermission(Authentication, Permission, ACL, ACL, ACL)} when
+     * all ACLs involved are permission matrices.
+     *
+     * @param child the permissions granted on the item itself
+     * @param parent the effective permissions of the parent item, or {@code null} if there is no parent item
+     * @param root the permissions granted globally
+     * @param parentReadRequired whether {@link #isParentReadPermissionRequired()}
+     * @return the effective permissions, or {@code null} if this strategy cannot be materialized
+     */
+    @Restricted(NoExternalUse.class)
+    @CheckForNull
+    protected EffectiveGrants combine(
+            @NonNull PermissionIndex child,
+            @CheckForNull EffectiveGrants parent,
+            @NonNull PermissionIndex root,
+            boolean parentReadRequired) {
+        return null;
+    }
+
+    /**
+     * Effective ACL of an item or agent with a permission matrix.
+     * Permission checks use {@link EffectiveGrants} materialized from the matrix, the parent's effective permissions
+     * and the root ACL, which are recomputed only when one of them changes.
+     * <p>
+     * One instance is cached per {@link ContainerACL}. The parent ACL is looked up for every check, and the effective
+     * grants are reused only while the compiled matrix, the parent's effective grants, and the root matrix are the
+     * same instances as when they were combined. Changes therefore take effect immediately, without relying on
+     * change notifications.
+     */
+    private static final class EffectiveACL extends ACL {
+        private final InheritanceStrategy strategy;
+        private final ContainerACL child;
+        private final AccessControlled subject;
+
+        EffectiveACL(InheritanceStrategy strategy, ContainerACL child, AccessControlled subject) {
+            this.strategy = strategy;
+            this.child = child;
+            this.subject = subject;
+        }
+
+        @Override
+        public boolean hasPermission2(@NonNull Authentication a, @NonNull Permission permission) {
+            final EffectiveGrants grants = getEffectiveGrants();
+            if (grants != null) {
+                return grants.hasPermission2(a, permission);
+            }
+            return strategy.hasPermission(
+                    a,
+                    permission,
+                    child,
+                    strategy.getParentItemACL(subject),
+                    Jenkins.get().getAuthorizationStrategy().getRootACL());
+        }
+
+        /**
+         * Returns the materialized permissions, or {@code null} if they cannot be materialized because a third-party
+         * strategy or ACL is involved.
+         */
+        @CheckForNull
+        private EffectiveGrants getEffectiveGrants() {
+            final ACL rootACL = Jenkins.get().getAuthorizationStrategy().getRootACL();
+            if (!(rootACL instanceof ContainerACL)) {
+                return null;
+            }
+            final PermissionIndex root = ((ContainerACL) rootACL).getContainer().getPermissionIndex();
+            return resolve(root, isParentReadPermissionRequired());
+        }
+
+        @CheckForNull
+        private EffectiveGrants resolve(PermissionIndex root, boolean parentReadRequired) {
+            final ACL parentACL = strategy.getParentItemACL(subject);
+            EffectiveGrants parent = null;
+            if (parentACL != null) {
+                parent = toEffectiveGrants(parentACL);
+                if (parent == null) {
+                    return null;
+                }
+            }
+            final PermissionIndex index = child.getContainer().getPermissionIndex();
+
+            final List<Object> inputs = Arrays.asList(strategy, index, parent, root, parentReadRequired);
+            EffectiveGrants grants = child.getEffectiveGrants(inputs);
+            if (grants == null) {
+                grants = strategy.combine(index, parent, root, parentReadRequired);
+                if (grants == null) {
+                    return null;
+                }
+                child.setEffectiveGrants(inputs, grants);
+            }
+            return grants;
+        }
+
+        @CheckForNull
+        private static EffectiveGrants toEffectiveGrants(ACL acl) {
+            if (acl instanceof EffectiveACL) {
+                return ((EffectiveACL) acl).getEffectiveGrants();
+            }
+            if (acl instanceof ContainerACL) {
+                return ((ContainerACL) acl).toEffectiveGrants();
+            }
+            return null;
+        }
+    }
 }
@@ -29,8 +29,15 @@ import hudson.Extension;
 import hudson.model.Item;
 import hudson.security.ACL;
 import hudson.security.Permission;
+import java.util.ArrayList;
+import java.util.List;
 import jenkins.model.Jenkins;
 import org.jenkinsci.Symbol;
+import org.jenkinsci.plugins.matrixauth.EffectiveGrants;
+import org.jenkinsci.plugins.matrixauth.PermissionGraph;
+import org.jenkinsci.plugins.matrixauth.PermissionIndex;
+import org.kohsuke.accmod.Restricted;
+import org.kohsuke.accmod.restrictions.NoExternalUse;
 import org.kohsuke.stapler.DataBoundConstructor;
 import org.springframework.security.core.Authentication;
 
@@ -42,6 +49,16 @@ public class NonInheritingStrategy extends InheritanceStrategy {
     @DataBoundConstructor
     public NonInheritingStrategy() {}
 
+    @Override
+    public boolean equals(Object o) {
+        return o != null && getClass() == o.getClass();
+    }
+
+    @Override
+    public int hashCode() {
+        return getClass().getName().hashCode();
+    }
+
     protected boolean hasPermission(
             @NonNull Authentication a, @NonNull Permission permission, ACL child, @CheckForNull ACL parent, ACL root) {
         if (a.equals(ACL.SYSTEM2)) {
@@ -73,11 +90,29 @@ public class NonInheritingStrategy extends InheritanceStrategy {
         }
     }
 
-    private static boolean isUltimatelyImpliedByAdminister(Permission permission) {
-        while (permission.impliedBy != null) {
-            permission = permission.impliedBy;
+    @Override
+    @Restricted(NoExternalUse.class)
+    protected EffectiveGrants combine(
+            @NonNull PermissionIndex child,
+            @CheckForNull EffectiveGrants parent,
+            @NonNull PermissionIndex root,
+            boolean parentReadRequired) {
+        final PermissionIndex administrators = root.getAdministrators();
+        final EffectiveGrants.Clause general = EffectiveGrants.Clause.of(administrators, child);
+        if (parentReadRequired && parent != null) {
+            // "administrators or (parent and child)" is "(administrators or parent) and (administrators or child)"
+            final List<EffectiveGrants.Clause> read = new ArrayList<>();
+            for (EffectiveGrants.Clause clause : parent.getRead()) {
+                read.add(clause.or(administrators));
+            }
+            read.add(general);
+            return new EffectiveGrants(general, read);
         }
-        return permission == Jenkins.ADMINISTER;
+        return EffectiveGrants.of(general);
+    }
+
+    private static boolean isUltimatelyImpliedByAdminister(Permission permission) {
+        return PermissionGraph.get().getRoot(permission) == Jenkins.ADMINISTER;
     }
 
     @Symbol("nonInheriting")
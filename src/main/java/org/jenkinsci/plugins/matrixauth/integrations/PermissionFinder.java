@@ -23,12 +23,14 @@
  */
 package org.jenkinsci.plugins.matrixauth.integrations;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import edu.umd.cs.findbugs.annotations.CheckForNull;
 import hudson.security.Permission;
 import hudson.security.PermissionGroup;
+import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Map;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
 
@@ -40,8 +42,12 @@ import org.kohsuke.accmod.restrictions.NoExternalUse;
 @Restricted(NoExternalUse.class)
 public class PermissionFinder {
 
-    /** For Matrix Auth - Title/Permission **/
-    private static final Pattern PERMISSION_PATTERN = Pattern.compile("^([^/]+)/(.+)$");
+    /**
+     * Maximum number of distinct permission strings whose parse result is remembered by {@link #resolve(String)}.
+     */
+    private static final int PARSE_CACHE_SIZE = 1024;
+
+    private static volatile Index index;
 
     /**
      * Attempt to match a given permission to what is defined in the UI.
@@ -50,7 +56,13 @@ public class PermissionFinder {
      */
     @CheckForNull
     public static Permission findPermission(String id) {
-        final String resolvedId = findPermissionId(id);
+        final Index index = getIndex();
+        final Permission permission = index.byShortForm.get(id);
+        if (permission != null) {
+            return permission;
+        }
+        // Not registered yet, resolving the ID may still load the class defining it
+        final String resolvedId = index.findPermissionId(id);
         return resolvedId != null ? Permission.fromId(resolvedId) : null;
     }
 
@@ -61,20 +73,93 @@ public class PermissionFinder {
      */
     @CheckForNull
     public static String findPermissionId(String id) {
-        List<PermissionGroup> pgs = PermissionGroup.getAll();
-        Matcher m = PERMISSION_PATTERN.matcher(id);
-        if (m.matches()) {
-            String owner = m.group(1);
-            String name = m.group(2);
-            for (PermissionGroup pg : pgs) {
+        return getIndex().findPermissionId(id);
+    }
+
+    /**
+     * Resolve a permission from either its ID (e.g. {@code hudson.model.Hudson.Administer}) or the form shown in the
+     * UI (e.g. {@code Overall/Administer}).
+     * Configuration files repeat the same few permission strings many times, so results are remembered until the set
+     * of known permissions changes.
+     *
+     * @param permission the permission ID or "Title/Permission" string
+     * @return the matched permission, or {@code null} if there is none
+     */
+    @CheckForNull
+    public static Permission resolve(String permission) {
+        final Index index = getIndex();
+        Permission p = index.parsed.getIfPresent(permission);
+        if (p != null) {
+            return p;
+        }
+        p = index.byId.get(permission);
+        if (p == null) {
+            p = index.byShortForm.get(permission);
+        }
+        if (p == null) {
+            p = Permission.fromId(permission);
+        }
+        if (p == null) {
+            p = findPermission(permission);
+        }
+        if (p != null) {
+            index.parsed.put(permission, p);
+        }
+        return p;
+    }
+
+    /**
+     * Only the number of permissions is compared, as {@link Permission#getAll()} is cheap to call, unlike
+     * {@link PermissionGroup#getAll()}. Groups are only relevant once permissions are added to them.
+     */
+    private static Index getIndex() {
+        Index index = PermissionFinder.index;
+        final List<Permission> permissions = Permission.getAll();
+        if (index == null || index.permissions != permissions.size()) {
+            index = new Index(permissions, PermissionGroup.getAll());
+            PermissionFinder.index = index;
+        }
+        return index;
+    }
+
+    /**
+     * Lookup tables for the permissions known at the time of creation.
+     * Replaced as a whole whenever permissions are added.
+     */
+    private static final class Index {
+        private final int permissions;
+        private final Map<String, Permission> byId = new HashMap<>();
+        private final Map<String, Permission> byShortForm = new HashMap<>();
+        private final Map<String, PermissionGroup> groupsById = new HashMap<>();
+        private final Cache<String, Permission> parsed =
+                CacheBuilder.newBuilder().maximumSize(PARSE_CACHE_SIZE).build();
+
+        private Index(List<Permission> permissions, List<PermissionGroup> groups) {
+            this.permissions = permissions.size();
+            for (Permission permission : permissions) {
+                byId.put(permission.getId(), permission);
+            }
+            for (PermissionGroup pg : groups) {
                 if (pg.owner.equals(Permission.class)) {
                     continue;
                 }
-                if (pg.getId().equals(owner)) {
-                    return pg.owner.getName() + "." + name;
+                // Like the UI, the first group with a given title wins
+                if (groupsById.putIfAbsent(pg.getId(), pg) == null) {
+                    for (Permission permission : pg.getPermissions()) {
+                        byShortForm.put(pg.getId() + "/" + permission.name, permission);
+                    }
                 }
             }
         }
-        return null;
+
+        @CheckForNull
+        private String findPermissionId(String id) {
+            final int separator = id.indexOf('/');
+            if (separator <= 0 || separator == id.length() - 1) {
+                return null;
+            }
+            final PermissionGroup pg = groupsById.get(id.substring(0, separator));
+            return pg == null ? null : pg.owner.getName() + "." + id.substring(separator + 1);
+        }
     }
 }
@@ -42,6 +42,7 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
 import org.jenkinsci.plugins.matrixauth.AuthorizationContainer;
+import org.jenkinsci.plugins.matrixauth.GrantTable;
 import org.jenkinsci.plugins.matrixauth.PermissionEntry;
 import org.kohsuke.accmod.Restricted;
 import org.kohsuke.accmod.restrictions.NoExternalUse;
@@ -121,12 +122,17 @@ public abstract class MatrixAuthorizationStrategyConfigurator<T extends Authoriz
     }
 
     public static void setEntries(AuthorizationContainer container, Collection<DefinitionEntry> entries) {
-        entries.forEach(e -> {
-            e.child().getPermissions().stream()
-                    .map(PermissionDefinition::getPermission)
-                    .forEach(p -> {
-                        container.add(p, e.permissionEntry());
-                    });
+        final AuthorizationContainer<?> c = container; // raw parameter, so use a typed reference
+        c.updateGrantTable(table -> {
+            final GrantTable.Builder builder = new GrantTable.Builder(table);
+            entries.forEach(e -> {
+                e.child().getPermissions().stream()
+                        .map(PermissionDefinition::getPermission)
+                        .forEach(p -> {
+                            builder.add(p, e.permissionEntry());
+                        });
+            });
+            return GrantTable.intern(builder.build());
         });
     }
 
@@ -138,7 +144,12 @@ public abstract class MatrixAuthorizationStrategyConfigurator<T extends Authoriz
                 Level.WARNING,
                 "Loading deprecated attribute 'permissions' for instance of '"
                         + container.getClass().getName() + "'. Use 'entries' instead.");
-        permissions.forEach(container::add);
+        final AuthorizationContainer<?> c = container; // raw parameter, so use a typed reference
+        c.updateGrantTable(table -> {
+            final GrantTable.Builder builder = new GrantTable.Builder(table);
+            permissions.forEach(permission -> c.parse(permission, builder::add));
+            return GrantTable.intern(builder.build());
+        });
     }
 
     /**
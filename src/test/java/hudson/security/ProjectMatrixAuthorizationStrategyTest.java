@@ -10,12 +10,16 @@ import hudson.model.Item;
 import hudson.model.Job;
 import hudson.model.User;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import jenkins.model.Jenkins;
+import net.sf.json.JSONObject;
 import org.htmlunit.FailingHttpStatusCodeException;
 import org.htmlunit.html.HtmlElement;
 import org.htmlunit.html.HtmlForm;
@@ -284,4 +288,111 @@ class ProjectMatrixAuthorizationStrategyTest {
             assertThat(authorizationStrategy.getGroups(), containsInAnyOrder("group1", "group2"));
         }
     }
+
+    @Test
+    void getGroupsFollowsChanges() throws Exception {
+        j.jenkins.setSecurityRealm(new HudsonPrivateSecurityRealm(false, false, null));
+        ProjectMatrixAuthorizationStrategy authorizationStrategy = new ProjectMatrixAuthorizationStrategy();
+        authorizationStrategy.add(Jenkins.READ, PermissionEntry.group("global"));
+        j.jenkins.setAuthorizationStrategy(authorizationStrategy);
+        assertThat(authorizationStrategy.getGroups(), containsInAnyOrder("global"));
+        assertSame(authorizationStrategy.getGroups(), authorizationStrategy.getGroups());
+
+        Folder f = j.jenkins.createProject(Folder.class, "F");
+        com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty folderProperty =
+                new com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty(Collections.emptyMap());
+        folderProperty.add(Item.READ, PermissionEntry.group("folder"));
+        f.addProperty(folderProperty);
+        FreeStyleProject job = f.createProject(FreeStyleProject.class, "job");
+        AuthorizationMatrixProperty jobProperty = new AuthorizationMatrixProperty(
+                Map.of(Item.READ, Set.of(PermissionEntry.group("job"), PermissionEntry.group("folder"))),
+                new InheritParentStrategy());
+        job.addProperty(jobProperty);
+        assertThat(authorizationStrategy.getGroups(), containsInAnyOrder("global", "folder", "job"));
+
+        jobProperty.add(Item.BUILD, PermissionEntry.group("builders"));
+        assertThat(authorizationStrategy.getGroups(), containsInAnyOrder("global", "folder", "job", "builders"));
+
+        job.removeProperty(AuthorizationMatrixProperty.class);
+        assertThat(authorizationStrategy.getGroups(), containsInAnyOrder("global", "folder"));
+
+        job.addProperty(new AuthorizationMatrixProperty(
+                Map.of(Item.READ, Set.of(PermissionEntry.group("job"))), new InheritParentStrategy()));
+        assertThat(authorizationStrategy.getGroups(), containsInAnyOrder("global", "folder", "job"));
+
+        f.renameTo("G");
+        assertThat(authorizationStrategy.getGroups(), containsInAnyOrder("global", "folder", "job"));
+
+        f.delete();
+        assertThat(authorizationStrategy.getGroups(), containsInAnyOrder("global"));
+    }
+
+    @Test
+    void bulkPermissionCheck() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        ProjectMatrixAuthorizationStrategy authorizationStrategy = new ProjectMatrixAuthorizationStrategy();
+        authorizationStrategy.add(Jenkins.READ, PermissionEntry.group("authenticated"));
+        authorizationStrategy.add(Item.READ, PermissionEntry.user("bob"));
+        j.jenkins.setAuthorizationStrategy(authorizationStrategy);
+
+        Folder visible = j.jenkins.createProject(Folder.class, "visible");
+        com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty visibleProperty =
+                new com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty(Collections.emptyMap());
+        visibleProperty.add(Item.READ, PermissionEntry.user("alice"));
+        visible.addProperty(visibleProperty);
+        Folder hidden = j.jenkins.createProject(Folder.class, "hidden");
+
+        List<Item> items = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            items.add(visible.createProject(FreeStyleProject.class, "job" + i));
+            FreeStyleProject job = hidden.createProject(FreeStyleProject.class, "job" + i);
+            if (i % 3 == 0) {
+                job.addProperty(new AuthorizationMatrixProperty(
+                        Map.of(Item.READ, Set.of(PermissionEntry.user("alice"))), new InheritParentStrategy()));
+            }
+            items.add(job);
+        }
+        items.add(visible);
+        items.add(hidden);
+
+        int threshold = ProjectMatrixAuthorizationStrategy.PARALLEL_THRESHOLD;
+        try {
+            for (int parallelThreshold : List.of(threshold, 2)) {
+                ProjectMatrixAuthorizationStrategy.PARALLEL_THRESHOLD = parallelThreshold;
+                for (String user : List.of("alice", "bob", "carol")) {
+                    Authentication a = User.getById(user, true).impersonate2();
+                    BitSet granted = authorizationStrategy.hasPermission2(a, Item.READ, items);
+                    for (int i = 0; i < items.size(); i++) {
+                        assertEquals(
+                                items.get(i).getACL().hasPermission2(a, Item.READ),
+                                granted.get(i),
+                                user + " on " + items.get(i).getFullName());
+                    }
+                }
+            }
+        } finally {
+            ProjectMatrixAuthorizationStrategy.PARALLEL_THRESHOLD = threshold;
+        }
+
+        JenkinsRule.WebClient wc = j.createWebClient().login("alice");
+        JSONObject response = JSONObject.fromObject(wc.goTo(
+                                "matrixAuthPermissions/check?permission=hudson.model.Item.Read"
+                                        + "&item=visible/job1&item=hidden/job1&item=hidden/job3&item=missing",
+                                "application/json")
+                        .getWebResponse()
+                        .getContentAsString())
+                .getJSONObject("data");
+        assertEquals("hudson.model.Item.Read", response.getString("permission"));
+        assertEquals(List.of(true, false, false, false), response.getJSONArray("granted"));
+
+        // the form shown in the UI
+        response = JSONObject.fromObject(wc.goTo(
+                                "matrixAuthPermissions/check?permission=Job/Read&item=visible/job1&item=hidden/job1",
+                                "application/json")
+                        .getWebResponse()
+                        .getContentAsString())
+                .getJSONObject("data");
+        assertEquals("hudson.model.Item.Read", response.getString("permission"));
+        assertEquals(List.of(true, false), response.getJSONArray("granted"));
+    }
 }
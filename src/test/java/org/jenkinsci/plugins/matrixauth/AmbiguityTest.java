@@ -18,6 +18,7 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Objects;
 import jenkins.model.Jenkins;
+import net.sf.json.JSONObject;
 import org.htmlunit.FailingHttpStatusCodeException;
 import org.htmlunit.html.HtmlFormUtil;
 import org.htmlunit.html.HtmlPage;
@@ -175,6 +176,117 @@ class AmbiguityTest {
         assertAdminMonitorVisible(false);
     }
 
+    @Test
+    void ambiguousJobsAreCounted() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new ProjectMatrixAuthorizationStrategy());
+        final AmbiguityMonitor.JobContributor jobContributor =
+                ExtensionList.lookupSingleton(AmbiguityMonitor.JobContributor.class);
+        assertFalse(jobContributor.hasAmbiguousEntries());
+
+        final FreeStyleProject first = j.createFreeStyleProject("first");
+        first.addProperty(newAmbiguousProperty());
+        final FreeStyleProject second = j.createFreeStyleProject("second");
+        second.addProperty(newAmbiguousProperty());
+        assertTrue(jobContributor.hasAmbiguousEntries());
+
+        first.renameTo("renamed");
+        assertTrue(jobContributor.activeJobs.contains("renamed"));
+        assertFalse(jobContributor.activeJobs.contains("first"));
+        first.delete();
+        assertTrue(jobContributor.hasAmbiguousEntries());
+
+        second.removeProperty(AuthorizationMatrixProperty.class);
+        assertFalse(jobContributor.hasAmbiguousEntries());
+        assertEquals(0, jobContributor.activeJobs.size()); // only ambiguous jobs are stored
+    }
+
+    @Test
+    void scanRecordsAllItems() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        j.jenkins.setAuthorizationStrategy(new ProjectMatrixAuthorizationStrategy());
+        final AmbiguityMonitor.JobContributor jobContributor =
+                ExtensionList.lookupSingleton(AmbiguityMonitor.JobContributor.class);
+        final FolderContributor folderContributor = ExtensionList.lookupSingleton(FolderContributor.class);
+
+        final Folder folder = j.jenkins.createProject(Folder.class, "F");
+        // legacy constructor, creates ambiguous entries
+        folder.addProperty(new com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty(
+                Collections.singletonMap(Item.READ, Collections.singleton("authenticated"))));
+        folder.createProject(FreeStyleProject.class, "fs").addProperty(newAmbiguousProperty());
+
+        // as if loaded during startup with the scan deferred
+        jobContributor.activeJobs.remove("F/fs");
+        folderContributor.activeFolders.remove("F");
+        assertFalse(jobContributor.hasAmbiguousEntries());
+        assertFalse(folderContributor.hasAmbiguousEntries());
+
+        AmbiguityMonitor.scan();
+        assertTrue(jobContributor.activeJobs.contains("F/fs"));
+        assertTrue(folderContributor.activeFolders.contains("F"));
+        assertAdminMonitorVisible(true);
+    }
+
+    @Test
+    void entriesArePaginated() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        final ProjectMatrixAuthorizationStrategy strategy = new ProjectMatrixAuthorizationStrategy();
+        strategy.add(Jenkins.ADMINISTER, PermissionEntry.user("admin"));
+        j.jenkins.setAuthorizationStrategy(strategy);
+        for (String name : Arrays.asList("b", "C", "a")) {
+            j.createFreeStyleProject(name).addProperty(newAmbiguousProperty());
+        }
+
+        final JenkinsRule.WebClient wc = j.createWebClient().login("admin");
+        final JSONObject response = JSONObject.fromObject(wc.goTo(
+                                "administrativeMonitor/" + AmbiguityMonitor.class.getName()
+                                        + "/entries?contributor=" + AmbiguityMonitor.JobContributor.class.getName()
+                                        + "&start=1&count=1",
+                                "application/json")
+                        .getWebResponse()
+                        .getContentAsString())
+                .getJSONObject("data");
+        assertEquals(3, response.getInt("total"));
+        assertEquals(Collections.singletonList("b"), response.getJSONArray("names"));
+
+        assertEquals(
+                Arrays.asList("a", "b", "C"),
+                ExtensionList.lookupSingleton(AmbiguityMonitor.JobContributor.class).activeJobs.getNames());
+    }
+
+    @Test
+    void overviewIsPaginated() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        final ProjectMatrixAuthorizationStrategy strategy = new ProjectMatrixAuthorizationStrategy();
+        strategy.add(Jenkins.ADMINISTER, PermissionEntry.user("admin"));
+        j.jenkins.setAuthorizationStrategy(strategy);
+        final AmbiguityMonitor.AmbiguousNames names =
+                ExtensionList.lookupSingleton(AmbiguityMonitor.JobContributor.class).activeJobs;
+        for (int i = 0; i < AmbiguityMonitor.PAGE_SIZE + 50; i++) {
+            names.record("job" + i, true);
+        }
+
+        final JenkinsRule.WebClient wc = j.createWebClient().login("admin");
+        HtmlPage page = wc.goTo("administrativeMonitor/" + AmbiguityMonitor.class.getName() + "/");
+        assertTrue(page.asNormalizedText().contains("Showing 1 to 100 of 150."));
+        assertTrue(page.getAnchorsByText("Previous").isEmpty());
+
+        page = page.getAnchorByText("Next").click();
+        assertTrue(page.asNormalizedText().contains("Showing 101 to 150 of 150."));
+        assertTrue(page.getAnchorsByText("Next").isEmpty());
+
+        page = page.getAnchorByText("Previous").click();
+        assertTrue(page.asNormalizedText().contains("Showing 1 to 100 of 150."));
+    }
+
+    private static AuthorizationMatrixProperty newAmbiguousProperty() {
+        return new AuthorizationMatrixProperty(
+                Collections.singletonMap(
+                        Item.READ,
+                        Collections.singleton(new PermissionEntry(AuthorizationType.EITHER, "authenticated"))),
+                new InheritParentStrategy());
+    }
+
     @LocalData
     @Test
     void testDataFrom2xReconfiguration() throws Exception {
@@ -196,11 +308,11 @@ class AmbiguityTest {
 
         { // admin monitor entries are as expected
             assertNotNull(folderContributor);
-            assertTrue(folderContributor.activeFolders.get("F"));
+            assertTrue(folderContributor.activeFolders.contains("F"));
             assertNotNull(jobContributor);
-            assertTrue(jobContributor.activeJobs.get("F/fs"));
+            assertTrue(jobContributor.activeJobs.contains("F/fs"));
             assertNotNull(nodeContributor);
-            assertTrue(nodeContributor.activeNodes.get("a1"));
+            assertTrue(nodeContributor.activeNodes.contains("a1"));
         }
 
         JenkinsRule.WebClient wc = j.createWebClient().login("admin");
@@ -212,7 +324,7 @@ class AmbiguityTest {
             HtmlFormUtil.submit(agentPage.getFormByName("config"));
         }
 
-        assertFalse(nodeContributor.activeNodes.get("a1"));
+        assertFalse(nodeContributor.activeNodes.contains("a1"));
 
         { // ensure permissions were migrated as expected on the node
             // object changes on submission, so need to get a new one
@@ -246,7 +358,7 @@ class AmbiguityTest {
             final Folder f = (Folder) j.jenkins.getItemByFullName("F");
             assertNotNull(f);
             assertTrue(
-                    folderContributor.activeFolders.get("F")); // presented by the Redundancy Department of Redundancy
+                    folderContributor.activeFolders.contains("F")); // presented by the Redundancy Department of Redundancy
 
             final com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty folderProperty =
                     f.getProperties()
@@ -273,7 +385,7 @@ class AmbiguityTest {
         }
 
         { // ensure permissions were migrated as expected on the folder
-            assertFalse(folderContributor.activeFolders.get("F"));
+            assertFalse(folderContributor.activeFolders.contains("F"));
 
             final Folder f = (Folder) j.jenkins.getItemByFullName("F");
             assertNotNull(f);
@@ -315,19 +427,19 @@ class AmbiguityTest {
 
         assertFalse(globalConfigurationContributor.hasAmbiguousEntries()); // "previously migrated"
 
-        assertTrue(jobContributor.activeJobs.get("F/fs"));
+        assertTrue(jobContributor.activeJobs.contains("F/fs"));
         final Item job = j.jenkins.getItemByFullName("F/fs");
         assertNotNull(job);
         job.delete();
         assertEquals(0, jobContributor.activeJobs.size());
 
-        assertTrue(folderContributor.activeFolders.get("F"));
+        assertTrue(folderContributor.activeFolders.contains("F"));
         final Item folder = j.jenkins.getItemByFullName("F");
         assertNotNull(folder);
         folder.delete();
         assertEquals(0, folderContributor.activeFolders.size());
 
-        assertTrue(nodeContributor.activeNodes.get("a1"));
+        assertTrue(nodeContributor.activeNodes.contains("a1"));
         j.jenkins.removeNode(Objects.requireNonNull(j.jenkins.getNode("a1")));
         assertEquals(0, nodeContributor.activeNodes.size());
     }
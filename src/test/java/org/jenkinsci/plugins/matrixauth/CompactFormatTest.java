@@ -0,0 +1,143 @@
+package org.jenkinsci.plugins.matrixauth;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import hudson.model.Computer;
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import hudson.model.Items;
+import hudson.model.Job;
+import hudson.model.Run;
+import hudson.model.View;
+import hudson.security.AuthorizationMatrixProperty;
+import hudson.security.GlobalMatrixAuthorizationStrategy;
+import hudson.security.Permission;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Logger;
+import jenkins.model.Jenkins;
+import org.jenkinsci.plugins.matrixauth.inheritance.NonInheritingStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class CompactFormatTest {
+
+    private static final Logger LOGGER = Logger.getLogger(CompactFormatTest.class.getName());
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule rule) {
+        j = rule;
+    }
+
+    @AfterEach
+    void tearDown() {
+        AbstractAuthorizationContainerConverter.COMPACT_FORMAT = false;
+    }
+
+    @Test
+    void roundTripAndSize() {
+        final List<Permission> permissions = List.of(
+                Jenkins.ADMINISTER,
+                Jenkins.READ,
+                Item.READ,
+                Item.BUILD,
+                Item.CONFIGURE,
+                Item.CREATE,
+                Item.DELETE,
+                Computer.CONFIGURE,
+                View.READ,
+                Run.DELETE);
+        GlobalMatrixAuthorizationStrategy strategy = new GlobalMatrixAuthorizationStrategy();
+        for (int i = 0; i < 400; i++) {
+            for (Permission permission : permissions) {
+                strategy.add(permission, PermissionEntry.user("user" + i));
+            }
+            strategy.add(Jenkins.READ, PermissionEntry.group("group" + i));
+        }
+        strategy.add(Item.READ, new PermissionEntry(AuthorizationType.EITHER, "either"));
+
+        final String legacy = Jenkins.XSTREAM2.toXML(strategy);
+        AbstractAuthorizationContainerConverter.COMPACT_FORMAT = true;
+        final String compact = Jenkins.XSTREAM2.toXML(strategy);
+        assertThat(compact, not(containsString("<permission>")));
+        assertThat(compact, containsString("<grant type=\"EITHER\" sid=\"either\">hudson.model.Item.Read</grant>"));
+        assertThat(compact.length(), lessThan(legacy.length() / 2));
+
+        // Both formats are read regardless of the option
+        for (String xml : List.of(legacy, compact)) {
+            GlobalMatrixAuthorizationStrategy read = (GlobalMatrixAuthorizationStrategy) Jenkins.XSTREAM2.fromXML(xml);
+            assertEquals(strategy.getGrantTable(), read.getGrantTable());
+        }
+
+        // Informational only, as timings vary too much between environments to assert on them
+        for (int i = 0; i < 20; i++) {
+            Jenkins.XSTREAM2.fromXML(legacy);
+            Jenkins.XSTREAM2.fromXML(compact);
+        }
+        final long legacyNanos = parseNanos(legacy, 20);
+        final long compactNanos = parseNanos(compact, 20);
+        LOGGER.info(() -> "Parsing took " + legacyNanos / 1000 + " µs for " + legacy.length()
+                + " characters in the legacy format, " + compactNanos / 1000 + " µs for " + compact.length()
+                + " characters in the compact format");
+        AbstractAuthorizationContainerConverter.COMPACT_FORMAT = false;
+        GlobalMatrixAuthorizationStrategy read = (GlobalMatrixAuthorizationStrategy) Jenkins.XSTREAM2.fromXML(compact);
+        assertEquals(strategy.getGrantTable(), read.getGrantTable());
+    }
+
+    /**
+     * Returns the average time taken to read the specified XML.
+     */
+    private static long parseNanos(String xml, int iterations) {
+        final long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            Jenkins.XSTREAM2.fromXML(xml);
+        }
+        return (System.nanoTime() - start) / iterations;
+    }
+
+    @Test
+    void unknownPermissionsAreSkipped() {
+        GlobalMatrixAuthorizationStrategy read = (GlobalMatrixAuthorizationStrategy) Jenkins.XSTREAM2.fromXML(
+                "<hudson.security.GlobalMatrixAuthorizationStrategy>"
+                        + "<grant type=\"USER\" sid=\"alice\">hudson.model.Hudson.Read, hudson.model.Item.Nonexistent,"
+                        + "hudson.model.Item.Read</grant>"
+                        + "<permission>GROUP:hudson.model.Hudson.Read:admins</permission>"
+                        + "</hudson.security.GlobalMatrixAuthorizationStrategy>");
+        assertEquals(
+                Map.of(
+                        Jenkins.READ,
+                        Set.of(PermissionEntry.user("alice"), PermissionEntry.group("admins")),
+                        Item.READ,
+                        Set.of(PermissionEntry.user("alice"))),
+                read.getGrantedPermissionEntries());
+    }
+
+    @Test
+    void propertyRoundTrip() throws Exception {
+        AbstractAuthorizationContainerConverter.COMPACT_FORMAT = true;
+        FreeStyleProject p = j.createFreeStyleProject();
+        AuthorizationMatrixProperty property = new AuthorizationMatrixProperty(
+                Map.of(
+                        Item.READ, Set.of(PermissionEntry.user("alice"), PermissionEntry.group("devs")),
+                        Item.BUILD, Set.of(PermissionEntry.group("devs"))),
+                new NonInheritingStrategy());
+        p.addProperty(property);
+        assertThat(p.getConfigFile().asString(), containsString("<grant type=\"GROUP\" sid=\"devs\">"));
+
+        Job<?, ?> loaded = (Job<?, ?>) Items.load(j.jenkins, p.getRootDir());
+        AuthorizationMatrixProperty loadedProperty = loaded.getProperty(AuthorizationMatrixProperty.class);
+        assertEquals(property.getGrantTable(), loadedProperty.getGrantTable());
+        assertEquals(NonInheritingStrategy.class, loadedProperty.getInheritanceStrategy().getClass());
+    }
+}
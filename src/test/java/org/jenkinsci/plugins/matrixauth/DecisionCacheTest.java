@@ -0,0 +1,71 @@
+package org.jenkinsci.plugins.matrixauth;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cloudbees.hudson.plugins.folder.Folder;
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import hudson.model.User;
+import hudson.security.AuthorizationMatrixProperty;
+import hudson.security.ProjectMatrixAuthorizationStrategy;
+import java.util.Collections;
+import jenkins.model.Jenkins;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+import org.springframework.security.core.Authentication;
+
+@WithJenkins
+class DecisionCacheTest {
+
+    private JenkinsRule j;
+
+    private boolean enabled;
+
+    @BeforeEach
+    void setUp(JenkinsRule rule) {
+        j = rule;
+        enabled = DecisionCache.ENABLED;
+        DecisionCache.ENABLED = true;
+        DecisionCache.get().clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        DecisionCache.ENABLED = enabled;
+        DecisionCache.get().clear();
+    }
+
+    @Test
+    void cachedDecisionsFollowChanges() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        ProjectMatrixAuthorizationStrategy strategy = new ProjectMatrixAuthorizationStrategy();
+        strategy.add(Jenkins.READ, PermissionEntry.group("authenticated"));
+        strategy.add(Item.READ, PermissionEntry.user("alice"));
+        j.jenkins.setAuthorizationStrategy(strategy);
+
+        Folder folder = j.jenkins.createProject(Folder.class, "folder");
+        FreeStyleProject job = folder.createProject(FreeStyleProject.class, "job");
+        AuthorizationMatrixProperty property = new AuthorizationMatrixProperty(Collections.emptyMap());
+        job.addProperty(property);
+
+        Authentication alice = User.getById("alice", true).impersonate2();
+        for (int i = 0; i < 10; i++) {
+            assertTrue(job.getACL().hasPermission2(alice, Item.READ));
+            assertFalse(job.getACL().hasPermission2(alice, Item.BUILD));
+            assertTrue(j.jenkins.getACL().hasPermission2(alice, Jenkins.READ));
+        }
+        assertTrue(DecisionCache.get().getHits() >= 27, DecisionCache.get()::toString);
+
+        property.add(Item.BUILD, PermissionEntry.user("alice"));
+        assertTrue(job.getACL().hasPermission2(alice, Item.BUILD));
+
+        strategy.add(Item.BUILD, PermissionEntry.user("bob"));
+        Authentication bob = User.getById("bob", true).impersonate2();
+        assertTrue(job.getACL().hasPermission2(bob, Item.BUILD));
+        assertFalse(job.getACL().hasPermission2(bob, Item.READ));
+    }
+}
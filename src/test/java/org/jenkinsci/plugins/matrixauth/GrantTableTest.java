@@ -0,0 +1,222 @@
+package org.jenkinsci.plugins.matrixauth;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hudson.BulkChange;
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import hudson.model.Items;
+import hudson.model.Job;
+import hudson.security.AuthorizationMatrixProperty;
+import hudson.security.GlobalMatrixAuthorizationStrategy;
+import hudson.security.Permission;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.jenkinsci.plugins.matrixauth.inheritance.InheritParentStrategy;
+import org.jenkinsci.plugins.matrixauth.inheritance.NonInheritingStrategy;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class GrantTableTest {
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule rule) {
+        j = rule;
+    }
+
+    @Test
+    void snapshotsAreImmutable() {
+        GlobalMatrixAuthorizationStrategy strategy = new GlobalMatrixAuthorizationStrategy();
+        strategy.add(Item.READ, PermissionEntry.user("alice"));
+        GrantTable before = strategy.getGrantTable();
+        Map<Permission, Set<PermissionEntry>> grants = strategy.getGrantedPermissionEntries();
+
+        strategy.add(Item.READ, PermissionEntry.group("readers"));
+        strategy.add(Item.BUILD, new PermissionEntry(AuthorizationType.EITHER, "builders"));
+
+        assertEquals(Set.of(PermissionEntry.user("alice")), grants.get(Item.READ));
+        assertFalse(before.getIndex().hasPermission("readers", Item.READ, false));
+        assertThrows(UnsupportedOperationException.class, () -> grants.put(Item.BUILD, Set.of()));
+        assertThrows(
+                UnsupportedOperationException.class,
+                () -> grants.get(Item.READ).add(PermissionEntry.user("bob")));
+
+        assertThat(
+                strategy.getGrantedPermissionEntries().get(Item.READ),
+                containsInAnyOrder(PermissionEntry.user("alice"), PermissionEntry.group("readers")));
+        assertThat(strategy.getGroups(), containsInAnyOrder("readers", "builders"));
+        assertTrue(strategy.hasPermission("readers", Item.READ, false));
+    }
+
+    @Test
+    void generationChanges() {
+        GlobalMatrixAuthorizationStrategy strategy = new GlobalMatrixAuthorizationStrategy();
+        long generation = strategy.getGeneration();
+
+        strategy.add(Item.READ, PermissionEntry.user("alice"));
+        assertNotEquals(generation, strategy.getGeneration());
+        generation = strategy.getGeneration();
+
+        // no change, same snapshot
+        GrantTable table = strategy.getGrantTable();
+        strategy.add(Item.READ, PermissionEntry.user("alice"));
+        assertSame(table, strategy.getGrantTable());
+        assertEquals(generation, strategy.getGeneration());
+
+        strategy.recordGroup("readers");
+        assertNotEquals(generation, strategy.getGeneration());
+
+        // interned snapshots are shared, so going back to previous permissions uses an older generation
+        GrantTable previous = GrantTable.intern(table);
+        strategy.updateGrantTable(t -> GrantTable.intern(GrantTable.of(t.getGrants())));
+        assertSame(previous, strategy.getGrantTable());
+        assertEquals(previous.getGeneration(), strategy.getGeneration());
+    }
+
+    @Test
+    void ambiguousEntriesAreCounted() {
+        GrantTable table = GrantTable.EMPTY
+                .with(Item.READ, PermissionEntry.user("alice"))
+                .with(Item.READ, new PermissionEntry(AuthorizationType.EITHER, "authenticated"));
+        assertEquals(1, table.getAmbiguousEntries());
+
+        // no change, same count
+        assertSame(table, table.with(Item.READ, new PermissionEntry(AuthorizationType.EITHER, "authenticated")));
+        table = new GrantTable.Builder(table)
+                .add(Item.READ, new PermissionEntry(AuthorizationType.EITHER, "authenticated"))
+                .add(Item.BUILD, new PermissionEntry(AuthorizationType.EITHER, "authenticated"))
+                .add(Item.BUILD, PermissionEntry.group("authenticated"))
+                .build();
+        assertEquals(2, table.getAmbiguousEntries());
+        assertEquals(0, GrantTable.EMPTY.getAmbiguousEntries());
+    }
+
+    @Test
+    void concurrentAdditions() throws Exception {
+        GlobalMatrixAuthorizationStrategy strategy = new GlobalMatrixAuthorizationStrategy();
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                final int thread = i;
+                futures.add(executor.submit(() -> {
+                    for (int k = 0; k < 250; k++) {
+                        strategy.add(Item.READ, PermissionEntry.user("user-" + thread + "-" + k));
+                        strategy.hasPermission("user-0-0", Item.READ, true);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1000, strategy.getGrantedPermissionEntries().get(Item.READ).size());
+        assertTrue(strategy.hasPermission("user-3-249", Item.READ, true));
+    }
+
+    @Test
+    void structuralEquality() {
+        GrantTable table = GrantTable.of(Map.of(
+                Item.READ, List.of(PermissionEntry.user("alice")),
+                Item.BUILD, List.of(PermissionEntry.group("builders"))));
+        GrantTable same = GrantTable.EMPTY
+                .with(Item.BUILD, PermissionEntry.group("builders"))
+                .with(Item.READ, PermissionEntry.user("alice"));
+
+        assertNotEquals(table.getGeneration(), same.getGeneration());
+        assertEquals(table, same);
+        assertEquals(table.hashCode(), same.hashCode());
+        assertNotEquals(table, same.withGroup("readers"));
+        assertNotEquals(table, same.with(Item.READ, PermissionEntry.group("alice")));
+
+        assertEquals(
+                new AuthorizationMatrixProperty(table.getGrants(), new InheritParentStrategy()),
+                new AuthorizationMatrixProperty(same.getGrants(), new InheritParentStrategy()));
+        assertNotEquals(
+                new AuthorizationMatrixProperty(table.getGrants(), new InheritParentStrategy()),
+                new AuthorizationMatrixProperty(same.getGrants(), new NonInheritingStrategy()));
+    }
+
+    @Test
+    void identicalPropertyIsNoOp() throws Exception {
+        FreeStyleProject job = j.createFreeStyleProject();
+        job.addProperty(newProperty());
+        GrantTable table = job.getProperty(AuthorizationMatrixProperty.class).getGrantTable();
+
+        // replace the property with an identical one, like the properties step in Pipeline does
+        try (BulkChange bc = new BulkChange(job)) {
+            job.removeProperty(AuthorizationMatrixProperty.class);
+            job.addProperty(newProperty());
+            bc.commit();
+        }
+        assertSame(table, job.getProperty(AuthorizationMatrixProperty.class).getGrantTable());
+
+        job.removeProperty(AuthorizationMatrixProperty.class);
+        job.addProperty(new AuthorizationMatrixProperty(
+                Map.of(Item.READ, Set.of(PermissionEntry.user("bob"))), new InheritParentStrategy()));
+        assertNotSame(table, job.getProperty(AuthorizationMatrixProperty.class).getGrantTable());
+    }
+
+    @Test
+    void identicalTablesAreShared() throws Exception {
+        FreeStyleProject first = j.createFreeStyleProject();
+        first.addProperty(newProperty());
+        FreeStyleProject second = j.createFreeStyleProject();
+        second.addProperty(newProperty());
+
+        GrantTable table = first.getProperty(AuthorizationMatrixProperty.class).getGrantTable();
+        assertSame(table, second.getProperty(AuthorizationMatrixProperty.class).getGrantTable());
+        assertSame(table.getIndex(), second.getProperty(AuthorizationMatrixProperty.class).getPermissionIndex());
+
+        Job<?, ?> loaded = (Job<?, ?>) Items.load(j.jenkins, second.getRootDir());
+        assertSame(table, loaded.getProperty(AuthorizationMatrixProperty.class).getGrantTable());
+    }
+
+    @Test
+    void serializedFormIsSortedAndCached() {
+        GrantTable table = GrantTable.EMPTY
+                .with(Item.READ, PermissionEntry.user("bob"))
+                .with(Item.READ, PermissionEntry.group("admins"))
+                .with(Item.READ, new PermissionEntry(AuthorizationType.EITHER, "carol"))
+                .with(Item.READ, PermissionEntry.user("Alice"))
+                .with(Item.BUILD, PermissionEntry.user("alice"));
+
+        List<String> lines = table.getSerializedForm();
+        assertEquals(
+                List.of(
+                        "USER:hudson.model.Item.Build:alice",
+                        "hudson.model.Item.Read:carol",
+                        "GROUP:hudson.model.Item.Read:admins",
+                        "USER:hudson.model.Item.Read:Alice",
+                        "USER:hudson.model.Item.Read:bob"),
+                lines);
+        assertSame(lines, table.getSerializedForm());
+        assertThrows(UnsupportedOperationException.class, () -> lines.add("USER:hudson.model.Item.Read:mallory"));
+    }
+
+    private static AuthorizationMatrixProperty newProperty() {
+        return new AuthorizationMatrixProperty(
+                Map.of(Item.READ, Set.of(PermissionEntry.user("alice"))), new InheritParentStrategy());
+    }
+}
@@ -0,0 +1,98 @@
+package org.jenkinsci.plugins.matrixauth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hudson.ExtensionList;
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import hudson.model.Items;
+import hudson.model.Job;
+import hudson.model.User;
+import hudson.security.AuthorizationMatrixProperty;
+import hudson.security.ProjectMatrixAuthorizationStrategy;
+import java.util.Map;
+import java.util.Set;
+import jenkins.model.Jenkins;
+import org.jenkinsci.plugins.matrixauth.inheritance.InheritParentStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class LazyLoadingTest {
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule rule) {
+        j = rule;
+    }
+
+    @AfterEach
+    void tearDown() {
+        AbstractAuthorizationPropertyConverter.LAZY_LOADING = false;
+        AbstractAuthorizationContainerConverter.COMPACT_FORMAT = false;
+    }
+
+    @Test
+    void parsedOnFirstUse() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        ProjectMatrixAuthorizationStrategy strategy = new ProjectMatrixAuthorizationStrategy();
+        strategy.add(Jenkins.READ, PermissionEntry.group("authenticated"));
+        j.jenkins.setAuthorizationStrategy(strategy);
+
+        final AmbiguityMonitor.JobContributor jobContributor =
+                ExtensionList.lookupSingleton(AmbiguityMonitor.JobContributor.class);
+        FreeStyleProject p = j.createFreeStyleProject("p");
+        AuthorizationMatrixProperty property = new AuthorizationMatrixProperty(
+                Map.of(
+                        Item.READ,
+                        Set.of(PermissionEntry.user("alice"), new PermissionEntry(AuthorizationType.EITHER, "bob")),
+                        Item.BUILD,
+                        Set.of(PermissionEntry.user("alice"))),
+                new InheritParentStrategy());
+        p.addProperty(property);
+        assertTrue(jobContributor.activeJobs.contains("p"));
+
+        AbstractAuthorizationPropertyConverter.LAZY_LOADING = true;
+        jobContributor.activeJobs.remove("p");
+        Job<?, ?> loaded = (Job<?, ?>) Items.load(j.jenkins, p.getRootDir());
+        // nothing that needs the permissions has looked at them yet
+        assertFalse(jobContributor.activeJobs.contains("p"));
+        // and the scans for ambiguous entries and groups do not parse them
+        AmbiguityMonitor.JobContributor.update(loaded);
+        GroupRegistry.record(loaded);
+        assertTrue(loaded.getProperty(AuthorizationMatrixProperty.class).hasPendingGrants());
+        assertFalse(jobContributor.activeJobs.contains("p"));
+
+        assertTrue(loaded.getACL().hasPermission2(User.getById("alice", true).impersonate2(), Item.BUILD));
+        assertFalse(loaded.getACL().hasPermission2(User.getById("carol", true).impersonate2(), Item.READ));
+        assertTrue(jobContributor.activeJobs.contains("p"));
+        assertEquals(property.getGrantTable(), loaded.getProperty(AuthorizationMatrixProperty.class).getGrantTable());
+    }
+
+    @Test
+    void compactFormat() throws Exception {
+        AbstractAuthorizationContainerConverter.COMPACT_FORMAT = true;
+        AbstractAuthorizationPropertyConverter.LAZY_LOADING = true;
+        FreeStyleProject p = j.createFreeStyleProject();
+        AuthorizationMatrixProperty property = new AuthorizationMatrixProperty(
+                Map.of(Item.READ, Set.of(PermissionEntry.user("alice"), PermissionEntry.group("devs"))),
+                new InheritParentStrategy());
+        p.addProperty(property);
+        final String xml = p.getConfigFile().asString();
+
+        Job<?, ?> loaded = (Job<?, ?>) Items.load(j.jenkins, p.getRootDir());
+        AuthorizationMatrixProperty loadedProperty = loaded.getProperty(AuthorizationMatrixProperty.class);
+        assertEquals(Set.of("devs"), loadedProperty.getGroups());
+        assertEquals(property.getGrantTable(), loadedProperty.getGrantTable());
+
+        // saving parses and writes the same content
+        loaded.save();
+        assertEquals(xml, loaded.getConfigFile().asString());
+    }
+}
@@ -0,0 +1,125 @@
+package org.jenkinsci.plugins.matrixauth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hudson.ExtensionList;
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import hudson.model.Items;
+import hudson.model.Job;
+import hudson.security.AuthorizationMatrixProperty;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Set;
+import org.jenkinsci.plugins.matrixauth.inheritance.InheritParentStrategy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class MatrixSnapshotTest {
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule rule) {
+        j = rule;
+        MatrixSnapshot.ENABLED = true;
+    }
+
+    @AfterEach
+    void tearDown() {
+        MatrixSnapshot.ENABLED = false;
+        AbstractAuthorizationPropertyConverter.LAZY_LOADING = false;
+    }
+
+    @Test
+    void usedForUnparsedMatrices() throws Exception {
+        FreeStyleProject p = j.createFreeStyleProject("p");
+        p.addProperty(new AuthorizationMatrixProperty(
+                Map.of(
+                        Item.READ,
+                        Set.of(PermissionEntry.group("devs"), new PermissionEntry(AuthorizationType.EITHER, "bob"))),
+                new InheritParentStrategy()));
+
+        // as if restarted
+        MatrixSnapshot.save();
+        assertTrue(MatrixSnapshot.getFile().isFile());
+        MatrixSnapshot.load();
+        final AmbiguityMonitor.JobContributor jobContributor =
+                ExtensionList.lookupSingleton(AmbiguityMonitor.JobContributor.class);
+        jobContributor.activeJobs.remove("p");
+
+        AbstractAuthorizationPropertyConverter.LAZY_LOADING = true;
+        Job<?, ?> loaded = (Job<?, ?>) Items.load(j.jenkins, p.getRootDir());
+        AuthorizationMatrixProperty property = loaded.getProperty(AuthorizationMatrixProperty.class);
+        MatrixSnapshot.Entry entry = MatrixSnapshot.lookup(loaded);
+        assertNotNull(entry);
+        assertTrue(entry.isAmbiguous());
+        assertEquals(Set.of("devs", "bob"), entry.getGroups());
+        // recorded from the snapshot without parsing
+        assertTrue(jobContributor.activeJobs.contains("p"));
+        assertTrue(property.hasPendingGrants());
+
+        // not used once the configuration file changed
+        final File config = loaded.getConfigFile().getFile();
+        assertTrue(config.setLastModified(config.lastModified() - 10_000));
+        assertNull(MatrixSnapshot.lookup(loaded));
+
+        // nor once the matrix was parsed
+        assertTrue(config.setLastModified(config.lastModified() + 10_000));
+        assertNotNull(MatrixSnapshot.lookup(loaded));
+        assertEquals(Set.of("devs", "bob"), property.getGroups());
+        assertFalse(property.hasPendingGrants());
+        assertNull(MatrixSnapshot.lookup(loaded));
+    }
+
+    @Test
+    void missingItemsAreDropped() throws Exception {
+        FreeStyleProject p = j.createFreeStyleProject("p");
+        p.addProperty(new AuthorizationMatrixProperty(
+                Map.of(Item.READ, Set.of(PermissionEntry.group("devs"))), new InheritParentStrategy()));
+        MatrixSnapshot.save();
+        MatrixSnapshot.load();
+        final File withItem = MatrixSnapshot.getFile();
+
+        p.delete();
+        MatrixSnapshot.save();
+        final File withoutItem = MatrixSnapshot.getFile();
+        assertNotEquals(withItem, withoutItem);
+        assertTrue(withoutItem.length() < withItem.length());
+        // replaced while mapped, and picked up on the next startup
+        MatrixSnapshot.load();
+        assertEquals(withoutItem, MatrixSnapshot.getFile());
+    }
+
+    @Test
+    void corruptSnapshotIsDiscarded() throws Exception {
+        FreeStyleProject p = j.createFreeStyleProject("p");
+        p.addProperty(new AuthorizationMatrixProperty(
+                Map.of(Item.READ, Set.of(PermissionEntry.group("devs"))), new InheritParentStrategy()));
+        MatrixSnapshot.save();
+        final byte[] bytes = Files.readAllBytes(MatrixSnapshot.getFile().toPath());
+        // claim the item name of the only entry is 2 GiB long
+        final int offset = ByteBuffer.wrap(bytes).getInt(12);
+        ByteBuffer.wrap(bytes).putInt(offset, Integer.MAX_VALUE);
+        final File corrupt = new File(j.jenkins.getRootDir(), "matrix-auth-snapshot-1000.bin");
+        Files.write(corrupt.toPath(), bytes);
+        MatrixSnapshot.load();
+        assertEquals(corrupt, MatrixSnapshot.getFile());
+
+        AbstractAuthorizationPropertyConverter.LAZY_LOADING = true;
+        Job<?, ?> loaded = (Job<?, ?>) Items.load(j.jenkins, p.getRootDir());
+        assertNull(MatrixSnapshot.lookup(loaded));
+        assertEquals(Set.of("devs"), loaded.getProperty(AuthorizationMatrixProperty.class).getGroups());
+    }
+}
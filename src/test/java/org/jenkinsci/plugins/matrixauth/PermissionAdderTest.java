@@ -1,12 +1,18 @@
 package org.jenkinsci.plugins.matrixauth;
 
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import hudson.ExtensionList;
+import hudson.XmlFile;
 import hudson.model.User;
 import hudson.security.GlobalMatrixAuthorizationStrategy;
 import hudson.security.HudsonPrivateSecurityRealm;
+import hudson.security.PermissionAdder;
 import hudson.security.pages.SignupPage;
+import java.io.File;
 import java.util.Collections;
 import java.util.Objects;
 import jenkins.model.Jenkins;
@@ -52,4 +58,37 @@ class PermissionAdderTest {
                                 .impersonate2(),
                         Jenkins.ADMINISTER)));
     }
+
+    @Test
+    void savesAreCoalesced() throws Throwable {
+        sessions.then(j -> {
+            j.jenkins.setSecurityRealm(new HudsonPrivateSecurityRealm(false, false, null));
+            GlobalMatrixAuthorizationStrategy strategy = new GlobalMatrixAuthorizationStrategy();
+            j.jenkins.setAuthorizationStrategy(strategy);
+            j.jenkins.save();
+
+            PermissionAdder adder =
+                    ExtensionList.lookupSingleton(GlobalMatrixAuthorizationStrategy.PermissionAdderImpl.class);
+            final XmlFile config = new XmlFile(new File(j.jenkins.getRootDir(), "config.xml"));
+            // administrators are saved immediately
+            assertTrue(adder.add(strategy, User.getById("alice", true), Jenkins.ADMINISTER));
+            assertThat(config.asString(), containsString("USER:hudson.model.Hudson.Administer:alice"));
+
+            assertTrue(adder.add(strategy, User.getById("bob", true), Jenkins.READ));
+            // effective immediately
+            assertTrue(
+                    strategy.getGrantedPermissionEntries().get(Jenkins.READ).contains(PermissionEntry.user("bob")));
+
+            GlobalMatrixAuthorizationStrategy.flushPendingSave();
+            assertThat(config.asString(), containsString("USER:hudson.model.Hudson.Read:bob"));
+
+            // saved on shutdown
+            assertTrue(adder.add(strategy, User.getById("carol", true), Jenkins.READ));
+        });
+        sessions.then(j -> assertTrue(
+                ((GlobalMatrixAuthorizationStrategy) j.jenkins.getAuthorizationStrategy())
+                        .getGrantedPermissionEntries()
+                        .get(Jenkins.READ)
+                        .contains(PermissionEntry.user("carol"))));
+    }
 }
@@ -0,0 +1,225 @@
+package org.jenkinsci.plugins.matrixauth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import hudson.model.Item;
+import hudson.security.ACL;
+import hudson.security.GlobalMatrixAuthorizationStrategy;
+import hudson.security.HudsonPrivateSecurityRealm;
+import hudson.security.Permission;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import jenkins.model.IdStrategy;
+import jenkins.model.Jenkins;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+@WithJenkins
+class PermissionIndexTest {
+
+    private JenkinsRule j;
+
+    private static class CaseSensitiveSecurityRealm extends HudsonPrivateSecurityRealm {
+        CaseSensitiveSecurityRealm() {
+            super(false, false, null);
+        }
+
+        @Override
+        public IdStrategy getUserIdStrategy() {
+            return new IdStrategy.CaseSensitive();
+        }
+
+        @Override
+        public IdStrategy getGroupIdStrategy() {
+            return new IdStrategy.CaseSensitive();
+        }
+    }
+
+    @BeforeEach
+    void setUp(JenkinsRule rule) {
+        j = rule;
+    }
+
+    @Test
+    void impliedPermissions() {
+        GlobalMatrixAuthorizationStrategy strategy = new GlobalMatrixAuthorizationStrategy();
+        strategy.add(Jenkins.ADMINISTER, PermissionEntry.user("alice"));
+        strategy.add(Item.READ, PermissionEntry.group("readers"));
+        strategy.add(Item.BUILD, new PermissionEntry(AuthorizationType.EITHER, "either"));
+
+        assertTrue(strategy.hasPermission("alice", Jenkins.ADMINISTER, true));
+        assertTrue(strategy.hasPermission("alice", Item.CONFIGURE, true));
+        assertFalse(strategy.hasPermission("alice", Item.CONFIGURE, false));
+
+        assertTrue(strategy.hasPermission("readers", Item.READ, false));
+        assertTrue(strategy.hasPermission("readers", Item.DISCOVER, false));
+        assertFalse(strategy.hasPermission("readers", Item.READ, true));
+        assertFalse(strategy.hasPermission("readers", Item.CONFIGURE, false));
+
+        assertTrue(strategy.hasPermission("either", Item.BUILD, true));
+        assertTrue(strategy.hasPermission("either", Item.BUILD, false));
+        assertFalse(strategy.hasPermission("either", Item.READ, true));
+    }
+
+    @Test
+    void indexIsInvalidatedOnAdd() {
+        GlobalMatrixAuthorizationStrategy strategy = new GlobalMatrixAuthorizationStrategy();
+        strategy.add(Item.READ, PermissionEntry.user("alice"));
+        PermissionIndex index = strategy.getPermissionIndex();
+        assertSame(index, strategy.getPermissionIndex());
+        assertFalse(strategy.hasPermission("alice", Item.BUILD, true));
+
+        strategy.add(Item.BUILD, PermissionEntry.user("alice"));
+        assertTrue(strategy.hasPermission("alice", Item.BUILD, true));
+    }
+
+    @Test
+    void indexFollowsIdStrategy() {
+        GlobalMatrixAuthorizationStrategy strategy = new GlobalMatrixAuthorizationStrategy();
+        strategy.add(Item.READ, PermissionEntry.user("Alice"));
+        strategy.add(Item.READ, PermissionEntry.group("Readers"));
+
+        // default security realm uses case insensitive ID strategies
+        assertTrue(strategy.hasPermission("alice", Item.READ, true));
+        assertTrue(strategy.hasPermission("READERS", Item.READ, false));
+        assertTrue(strategy.hasExplicitPermission(PermissionEntry.user("ALICE"), Item.READ));
+        assertFalse(strategy.hasExplicitPermission(PermissionEntry.group("ALICE"), Item.READ));
+
+        j.jenkins.setSecurityRealm(new CaseSensitiveSecurityRealm());
+        assertFalse(strategy.hasPermission("alice", Item.READ, true));
+        assertTrue(strategy.hasPermission("Alice", Item.READ, true));
+        assertFalse(strategy.hasPermission("READERS", Item.READ, false));
+        assertFalse(strategy.hasExplicitPermission(PermissionEntry.user("ALICE"), Item.READ));
+        assertTrue(strategy.hasExplicitPermission(PermissionEntry.user("Alice"), Item.READ));
+    }
+
+    /**
+     * Checks of sids by name, as done by {@link GlobalMatrixAuthorizationStrategy#hasPermission(String, Permission,
+     * boolean)}, with sids that are already lowercase. This does not cover checking an {@link Authentication}, which
+     * looks up its {@link AuthoritySet} in a cache that records each access, nor mixed-case sids with the default
+     * case-insensitive {@link IdStrategy}, which converts them to lowercase for every lookup.
+     */
+    @Test
+    void checksDoNotAllocate() {
+        GlobalMatrixAuthorizationStrategy strategy = new GlobalMatrixAuthorizationStrategy();
+        for (int i = 0; i < 100; i++) {
+            strategy.add(Item.READ, PermissionEntry.user("user" + i));
+            strategy.add(Item.BUILD, PermissionEntry.group("group" + i));
+        }
+        strategy.add(Jenkins.ADMINISTER, PermissionEntry.user("admin"));
+        // entries are interned, so the matrix refers to the canonical instances
+        assertSame(
+                PermissionEntry.user("user42"),
+                strategy.getGrantedPermissionEntries().get(Item.READ).stream()
+                        .filter(e -> e.equals(PermissionEntry.user("user42")))
+                        .findFirst()
+                        .orElseThrow());
+
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        for (int i = 0; i < 100_000; i++) {
+            check(strategy);
+        }
+
+        final int iterations = 10_000;
+        final long thread = Thread.currentThread().getId();
+        final long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < iterations; i++) {
+            check(strategy);
+        }
+        final long allocated = threads.getThreadAllocatedBytes(thread) - before;
+        // allow for incidental allocations, e.g. by the measurement itself, but not for any per check
+        assertTrue(
+                allocated < 16L * iterations, () -> allocated + " bytes allocated by " + iterations + " iterations");
+    }
+
+    @Test
+    void permissionGraph() {
+        PermissionGraph graph = PermissionGraph.get();
+        for (Permission p : Permission.getAll()) {
+            List<Permission> impliedBy = new ArrayList<>();
+            for (Permission ancestor = p.impliedBy; ancestor != null; ancestor = ancestor.impliedBy) {
+                impliedBy.add(ancestor);
+            }
+            assertEquals(impliedBy, graph.getImpliedBy(p), p.getId());
+            assertEquals(impliedBy.isEmpty() ? p : impliedBy.get(impliedBy.size() - 1), graph.getRoot(p), p.getId());
+        }
+        assertSame(Jenkins.ADMINISTER, graph.getRoot(Item.CONFIGURE));
+    }
+
+    @Test
+    void permissionGraphFollowsEnabled() {
+        GlobalMatrixAuthorizationStrategy strategy = new GlobalMatrixAuthorizationStrategy();
+        strategy.add(Item.WORKSPACE, PermissionEntry.user("alice"));
+        strategy.add(Jenkins.ADMINISTER, PermissionEntry.user("admin"));
+        Authentication alice = new UsernamePasswordAuthenticationToken("alice", "", List.of());
+        try {
+            assertTrue(strategy.hasPermission("alice", Item.WORKSPACE, true));
+            assertTrue(strategy.getRootACL().hasPermission2(alice, Item.WORKSPACE));
+
+            // takes effect immediately, regardless of PermissionGraph.VERIFY_INTERVAL_MILLIS
+            Item.WORKSPACE.setEnabled(false);
+            assertFalse(strategy.hasPermission("alice", Item.WORKSPACE, true));
+            assertFalse(strategy.getRootACL().hasPermission2(alice, Item.WORKSPACE));
+            assertTrue(strategy.hasPermission("admin", Item.WORKSPACE, true)); // still implied
+
+            Item.WORKSPACE.setEnabled(true);
+            assertTrue(strategy.hasPermission("alice", Item.WORKSPACE, true));
+            assertTrue(strategy.getRootACL().hasPermission2(alice, Item.WORKSPACE));
+        } finally {
+            Item.WORKSPACE.setEnabled(true);
+        }
+    }
+
+    @Test
+    void manyAuthorities() {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        GlobalMatrixAuthorizationStrategy strategy = new GlobalMatrixAuthorizationStrategy();
+        strategy.add(Item.BUILD, PermissionEntry.group("Group-250"));
+        strategy.add(Item.CONFIGURE, PermissionEntry.user("group-1"));
+        strategy.add(Item.DISCOVER, PermissionEntry.user("anonymous"));
+        strategy.add(Jenkins.ADMINISTER, PermissionEntry.group("admins"));
+        j.jenkins.setAuthorizationStrategy(strategy);
+
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            authorities.add(new SimpleGrantedAuthority("group-" + i));
+        }
+        Authentication alice = new UsernamePasswordAuthenticationToken("alice", "", authorities);
+        assertSame(AuthoritySet.of(alice), AuthoritySet.of(alice));
+
+        ACL acl = strategy.getRootACL();
+        assertTrue(acl.hasPermission2(alice, Item.BUILD));
+        assertFalse(acl.hasPermission2(alice, Item.CONFIGURE)); // granted to a user, not a group
+        assertTrue(acl.hasPermission2(alice, Item.DISCOVER)); // granted to anonymous
+        assertFalse(acl.hasPermission2(alice, Item.READ));
+        assertFalse(acl.hasPermission2(alice, Item.DELETE));
+
+        Authentication admin = new UsernamePasswordAuthenticationToken(
+                "bob", "", List.of(new SimpleGrantedAuthority("authenticated"), new SimpleGrantedAuthority("ADMINS")));
+        assertTrue(acl.hasPermission2(admin, Item.DELETE)); // implied
+        assertTrue(acl.hasPermission2(admin, Item.READ));
+    }
+
+    private static void check(GlobalMatrixAuthorizationStrategy strategy) {
+        assertTrue(strategy.hasPermission("user42", Item.READ, true));
+        assertFalse(strategy.hasPermission("user42", Item.BUILD, true));
+        assertTrue(strategy.hasPermission("group42", Item.BUILD, false));
+        assertTrue(strategy.hasPermission("admin", Item.DELETE, true));
+        assertFalse(strategy.hasPermission("unknown", Item.READ, false));
+    }
+}
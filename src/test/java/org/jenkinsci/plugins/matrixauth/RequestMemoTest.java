@@ -0,0 +1,81 @@
+package org.jenkinsci.plugins.matrixauth;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import hudson.model.User;
+import hudson.security.AuthorizationMatrixProperty;
+import hudson.security.ProjectMatrixAuthorizationStrategy;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+import jenkins.model.Jenkins;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+import org.springframework.security.core.Authentication;
+
+@WithJenkins
+class RequestMemoTest {
+
+    private JenkinsRule j;
+
+    private boolean enabled;
+
+    @BeforeEach
+    void setUp(JenkinsRule rule) {
+        j = rule;
+        enabled = RequestMemo.ENABLED;
+        RequestMemo.ENABLED = true;
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestMemo.ENABLED = enabled;
+    }
+
+    @Test
+    void memoIsRequestScoped() throws Throwable {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        ProjectMatrixAuthorizationStrategy strategy = new ProjectMatrixAuthorizationStrategy();
+        strategy.add(Jenkins.READ, PermissionEntry.group("authenticated"));
+        strategy.add(Item.READ, PermissionEntry.user("alice"));
+        j.jenkins.setAuthorizationStrategy(strategy);
+        FreeStyleProject job = j.createFreeStyleProject();
+        AuthorizationMatrixProperty property = new AuthorizationMatrixProperty(Collections.emptyMap());
+        job.addProperty(property);
+        Authentication alice = User.getById("alice", true).impersonate2();
+
+        assertNull(RequestMemo.current());
+
+        AtomicReference<RequestMemo> first = new AtomicReference<>();
+        j.executeOnServer(() -> {
+            RequestMemo memo = RequestMemo.current();
+            assertNotNull(memo);
+            first.set(memo);
+            int size = memo.size();
+            for (int i = 0; i < 10; i++) {
+                assertTrue(job.getACL().hasPermission2(alice, Item.READ));
+                assertFalse(job.getACL().hasPermission2(alice, Item.BUILD));
+            }
+            assertEquals(size + 2, memo.size());
+
+            // changes during the request are not hidden by the memo
+            property.add(Item.BUILD, PermissionEntry.user("alice"));
+            assertTrue(job.getACL().hasPermission2(alice, Item.BUILD));
+            return null;
+        });
+
+        j.executeOnServer(() -> {
+            assertNotSame(first.get(), RequestMemo.current());
+            return null;
+        });
+    }
+}
@@ -0,0 +1,242 @@
+package org.jenkinsci.plugins.matrixauth.inheritance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.cloudbees.hudson.plugins.folder.Folder;
+import hudson.BulkChange;
+import hudson.model.AbstractItem;
+import hudson.model.FreeStyleProject;
+import hudson.model.Item;
+import hudson.model.Items;
+import hudson.model.User;
+import hudson.security.ACL;
+import hudson.security.AuthorizationMatrixProperty;
+import hudson.security.Permission;
+import hudson.security.ProjectMatrixAuthorizationStrategy;
+import java.util.Collections;
+import java.util.List;
+import jenkins.model.Jenkins;
+import org.jenkinsci.plugins.matrixauth.ContainerACL;
+import org.jenkinsci.plugins.matrixauth.PermissionEntry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+import org.springframework.security.core.Authentication;
+
+/**
+ * Compares the materialized effective permissions with evaluating {@link InheritanceStrategy} recursively.
+ */
+@WithJenkins
+class EffectiveGrantsTest {
+
+    private static final String CHECK_PARENT_PERMISSIONS =
+            hudson.security.AuthorizationMatrixProperty.class.getName() + ".checkParentPermissions";
+
+    private static final List<Permission> PERMISSIONS =
+            List.of(Item.READ, Item.DISCOVER, Item.BUILD, Item.CONFIGURE, Item.DELETE, Jenkins.ADMINISTER);
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule rule) {
+        j = rule;
+    }
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty(CHECK_PARENT_PERMISSIONS);
+    }
+
+    @Test
+    void sameAsRecursiveEvaluation() throws Exception {
+        JenkinsRule.DummySecurityRealm realm = j.createDummySecurityRealm();
+        realm.addGroups("dave", "devs");
+        j.jenkins.setSecurityRealm(realm);
+
+        ProjectMatrixAuthorizationStrategy strategy = new ProjectMatrixAuthorizationStrategy();
+        strategy.add(Jenkins.ADMINISTER, PermissionEntry.user("admin"));
+        strategy.add(Jenkins.READ, PermissionEntry.group("authenticated"));
+        strategy.add(Item.READ, PermissionEntry.user("reader"));
+        strategy.add(Item.DISCOVER, PermissionEntry.user("anonymous"));
+        j.jenkins.setAuthorizationStrategy(strategy);
+
+        Folder outer = j.jenkins.createProject(Folder.class, "outer");
+        Folder inner = outer.createProject(Folder.class, "inner");
+        FreeStyleProject job = inner.createProject(FreeStyleProject.class, "job");
+
+        com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty outerProperty =
+                new com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty(
+                        Collections.emptyList());
+        outerProperty.add(Item.READ, PermissionEntry.user("bob"));
+        outerProperty.add(Item.READ, PermissionEntry.group("devs"));
+        outerProperty.add(Item.BUILD, PermissionEntry.user("carol"));
+        outer.addProperty(outerProperty);
+
+        com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty innerProperty =
+                new com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty(
+                        Collections.emptyList());
+        innerProperty.add(Item.READ, PermissionEntry.user("carol"));
+        innerProperty.add(Item.CONFIGURE, PermissionEntry.group("devs"));
+        inner.addProperty(innerProperty);
+
+        AuthorizationMatrixProperty jobProperty = new AuthorizationMatrixProperty(Collections.emptyList());
+        jobProperty.add(Item.READ, PermissionEntry.user("reader"));
+        jobProperty.add(Item.DELETE, PermissionEntry.user("bob"));
+        job.addProperty(jobProperty);
+
+        List<Authentication> authentications = List.of(
+                User.getById("admin", true).impersonate2(),
+                User.getById("reader", true).impersonate2(),
+                User.getById("bob", true).impersonate2(),
+                User.getById("carol", true).impersonate2(),
+                User.getById("dave", true).impersonate2(),
+                Jenkins.ANONYMOUS2);
+        List<InheritanceStrategy> strategies =
+                List.of(new InheritParentStrategy(), new InheritGlobalStrategy(), new NonInheritingStrategy());
+
+        for (String checkParentPermissions : List.of("true", "false")) {
+            System.setProperty(CHECK_PARENT_PERMISSIONS, checkParentPermissions);
+            for (InheritanceStrategy outerStrategy : strategies) {
+                outerProperty.setInheritanceStrategy(outerStrategy);
+                for (InheritanceStrategy innerStrategy : strategies) {
+                    innerProperty.setInheritanceStrategy(innerStrategy);
+                    for (InheritanceStrategy jobStrategy : strategies) {
+                        jobProperty.setInheritanceStrategy(jobStrategy);
+                        for (AbstractItem item : List.of(outer, inner, job)) {
+                            ACL actual = item.getACL();
+                            ACL expected = recursiveACL(item);
+                            for (Authentication a : authentications) {
+                                for (Permission p : PERMISSIONS) {
+                                    assertEquals(
+                                            expected.hasPermission2(a, p),
+                                            actual.hasPermission2(a, p),
+                                            a.getName() + " " + p.getId() + " on " + item.getFullName() + " with "
+                                                    + outerStrategy.getClass().getSimpleName() + "/"
+                                                    + innerStrategy.getClass().getSimpleName() + "/"
+                                                    + jobStrategy.getClass().getSimpleName()
+                                                    + ", checkParentPermissions=" + checkParentPermissions);
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        // changes are picked up
+        System.clearProperty(CHECK_PARENT_PERMISSIONS);
+        outerProperty.setInheritanceStrategy(new InheritParentStrategy());
+        innerProperty.setInheritanceStrategy(new InheritParentStrategy());
+        jobProperty.setInheritanceStrategy(new InheritParentStrategy());
+        Authentication eve = User.getById("eve", true).impersonate2();
+        assertFalse(job.getACL().hasPermission2(eve, Item.CONFIGURE));
+        innerProperty.add(Item.CONFIGURE, PermissionEntry.user("eve"));
+        assertTrue(job.getACL().hasPermission2(eve, Item.CONFIGURE));
+        outer.getProperties()
+                .remove(com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty.class);
+        Authentication bob = User.getById("bob", true).impersonate2();
+        assertFalse(job.getACL().hasPermission2(bob, Item.READ));
+    }
+
+    @Test
+    void cachedPerItem() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        ProjectMatrixAuthorizationStrategy strategy = new ProjectMatrixAuthorizationStrategy();
+        strategy.add(Jenkins.READ, PermissionEntry.group("authenticated"));
+        j.jenkins.setAuthorizationStrategy(strategy);
+
+        Folder visible = j.jenkins.createProject(Folder.class, "visible");
+        com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty visibleProperty =
+                new com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty(
+                        Collections.emptyList());
+        visibleProperty.add(Item.READ, PermissionEntry.user("alice"));
+        visible.addProperty(visibleProperty);
+        Folder hidden = j.jenkins.createProject(Folder.class, "hidden");
+        FreeStyleProject job = visible.createProject(FreeStyleProject.class, "job");
+        AuthorizationMatrixProperty jobProperty = new AuthorizationMatrixProperty(Collections.emptyList());
+        jobProperty.add(Item.BUILD, PermissionEntry.user("alice"));
+        job.addProperty(jobProperty);
+
+        Authentication alice = User.getById("alice", true).impersonate2();
+        ACL acl = job.getACL();
+        assertSame(acl, job.getACL());
+        assertTrue(acl.hasPermission2(alice, Item.READ));
+        assertTrue(acl.hasPermission2(alice, Item.BUILD));
+
+        // moving the job changes its parent
+        job = Items.move(job, hidden);
+        assertSame(acl, job.getACL());
+        assertFalse(acl.hasPermission2(alice, Item.READ));
+        assertTrue(acl.hasPermission2(alice, Item.BUILD));
+
+        // so does changing the inheritance strategy
+        jobProperty.setInheritanceStrategy(new NonInheritingStrategy());
+        assertNotSame(acl, job.getACL());
+        assertFalse(job.getACL().hasPermission2(alice, Item.READ));
+        assertTrue(job.getACL().hasPermission2(alice, Item.BUILD));
+    }
+
+    @Test
+    void revokedWithoutSaving() throws Exception {
+        j.jenkins.setSecurityRealm(j.createDummySecurityRealm());
+        ProjectMatrixAuthorizationStrategy strategy = new ProjectMatrixAuthorizationStrategy();
+        strategy.add(Jenkins.READ, PermissionEntry.group("authenticated"));
+        j.jenkins.setAuthorizationStrategy(strategy);
+
+        Folder folder = j.jenkins.createProject(Folder.class, "folder");
+        com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty folderProperty =
+                new com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty(
+                        Collections.emptyList());
+        folderProperty.add(Item.READ, PermissionEntry.user("alice"));
+        folder.addProperty(folderProperty);
+        FreeStyleProject job = folder.createProject(FreeStyleProject.class, "job");
+        AuthorizationMatrixProperty jobProperty = new AuthorizationMatrixProperty(Collections.emptyList());
+        jobProperty.add(Item.BUILD, PermissionEntry.user("alice"));
+        job.addProperty(jobProperty);
+
+        Authentication alice = User.getById("alice", true).impersonate2();
+        assertTrue(job.getACL().hasPermission2(alice, Item.READ));
+        // no save event until the bulk change is committed
+        try (BulkChange bc = new BulkChange(folder)) {
+            folder.getProperties()
+                    .remove(com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty.class);
+            assertFalse(job.getACL().hasPermission2(alice, Item.READ));
+            assertTrue(job.getACL().hasPermission2(alice, Item.BUILD));
+        }
+    }
+
+    private ACL recursiveACL(AbstractItem item) {
+        final ACL root = j.jenkins.getAuthorizationStrategy().getRootACL();
+        final ACL parent =
+                item.getParent() instanceof AbstractItem ? recursiveACL((AbstractItem) item.getParent()) : null;
+        final InheritanceStrategy strategy;
+        final ACL child;
+        if (item instanceof FreeStyleProject) {
+            AuthorizationMatrixProperty property =
+                    ((FreeStyleProject) item).getProperty(AuthorizationMatrixProperty.class);
+            if (property == null) {
+                return parent == null ? root : parent;
+            }
+            strategy = property.getInheritanceStrategy();
+            child = property.getACL();
+        } else {
+            com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty property = ((Folder) item)
+                    .getProperties()
+                    .get(com.cloudbees.hudson.plugins.folder.properties.AuthorizationMatrixProperty.class);
+            if (property == null) {
+                return parent == null ? root : parent;
+            }
+            strategy = property.getInheritanceStrategy();
+            child = property.getACL();
+        }
+        assertInstanceOf(ContainerACL.class, child);
+        return ACL.lambda2((a, p) -> strategy.hasPermission(a, p, child, parent, root));
+    }
+}
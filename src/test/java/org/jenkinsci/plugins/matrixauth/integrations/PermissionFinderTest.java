@@ -0,0 +1,84 @@
+/*
+ * The MIT License
+ *
+ * Copyright (c) 2026 Matrix Authorization Strategy Plugin developers
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package org.jenkinsci.plugins.matrixauth.integrations;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import hudson.model.Computer;
+import hudson.model.Item;
+import hudson.security.Permission;
+import hudson.security.PermissionGroup;
+import jenkins.model.Jenkins;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.jvnet.hudson.test.JenkinsRule;
+import org.jvnet.hudson.test.junit.jupiter.WithJenkins;
+
+@WithJenkins
+class PermissionFinderTest {
+
+    private JenkinsRule j;
+
+    @BeforeEach
+    void setUp(JenkinsRule rule) {
+        j = rule;
+    }
+
+    @Test
+    void resolvesIdsAndShortForms() {
+        assertSame(Jenkins.ADMINISTER, PermissionFinder.resolve("hudson.model.Hudson.Administer"));
+        assertSame(Jenkins.ADMINISTER, PermissionFinder.resolve("Overall/Administer"));
+        assertSame(Item.BUILD, PermissionFinder.resolve("Job/Build"));
+        assertSame(Computer.CONFIGURE, PermissionFinder.resolve("Agent/Configure"));
+        // repeated lookups are answered from the cache
+        assertSame(Item.BUILD, PermissionFinder.resolve("Job/Build"));
+
+        assertEquals("hudson.model.Item.Build", PermissionFinder.findPermissionId("Job/Build"));
+        assertEquals("hudson.model.Item.Nonexistent", PermissionFinder.findPermissionId("Job/Nonexistent"));
+
+        assertNull(PermissionFinder.resolve("Job/Nonexistent"));
+        assertNull(PermissionFinder.resolve("Nonexistent/Build"));
+        assertNull(PermissionFinder.resolve("hudson.model.Item.Nonexistent"));
+        assertNull(PermissionFinder.resolve("Job/"));
+        assertNull(PermissionFinder.resolve("/Build"));
+        assertNull(PermissionFinder.resolve("Build"));
+    }
+
+    @Test
+    void indexMatchesGroupLookup() {
+        for (PermissionGroup group : PermissionGroup.getAll()) {
+            if (group.owner.equals(Permission.class)) {
+                continue;
+            }
+            for (Permission permission : group.getPermissions()) {
+                final String shortForm = group.getId() + "/" + permission.name;
+                final String id = PermissionFinder.findPermissionId(shortForm);
+                assertSame(Permission.fromId(id), PermissionFinder.findPermission(shortForm), shortForm);
+                assertSame(permission, PermissionFinder.resolve(permission.getId()), permission.getId());
+            }
+        }
+    }
+}